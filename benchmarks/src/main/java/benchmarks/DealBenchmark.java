@@ -0,0 +1,32 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import gameplay.SolitaireModel;
+import setup.Deck;
+
+/**
+ * DealBenchmark measures shuffling a deck and dealing a whole game
+ * @author Yael Goldin
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DealBenchmark {
+	private long seed;
+	
+	@Benchmark
+	public Deck shuffleDeck() {
+		return new Deck(seed++);
+	}
+	
+	@Benchmark
+	public SolitaireModel dealGame() {
+		return new SolitaireModel(seed++);
+	}
+}
@@ -0,0 +1,101 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import gameplay.*;
+
+/**
+ * MoveBenchmark measures each public move method of SolitaireModel, along with move generation and
+ * the game over check
+ * 
+ * Every move benchmark makes the move from a fixed position and then undoes it, so the position is the
+ * same on every invocation and the score includes the cost of undo.
+ * @author Yael Goldin
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveBenchmark {
+	private Positions.Found stockToWaste;
+	private Positions.Found wasteToStock;
+	private Positions.Found wasteToFoundation;
+	private Positions.Found wasteToTableau;
+	private Positions.Found tableauToFoundation;
+	private Positions.Found tableauToTableau;
+	private Positions.Found foundationToTableau;
+	private SolitaireModel midGame;
+	private MoveBuffer moves;
+	
+	@Setup
+	public void setUp() {
+		stockToWaste = Positions.withMove(Move.STOCK_TO_WASTE);
+		wasteToStock = Positions.withMove(Move.WASTE_TO_STOCK);
+		wasteToFoundation = Positions.withMove(Move.WASTE_TO_FOUNDATION);
+		wasteToTableau = Positions.withMove(Move.WASTE_TO_TABLEAU);
+		tableauToFoundation = Positions.withMove(Move.TABLEAU_TO_FOUNDATION);
+		tableauToTableau = Positions.withMove(Move.TABLEAU_TO_TABLEAU);
+		foundationToTableau = Positions.withMove(Move.FOUNDATION_TO_TABLEAU);
+		midGame = Positions.midGame(1, 60);
+		moves = new MoveBuffer();
+	}
+	
+	@Benchmark
+	public int moveTopStockCardToWaste() {
+		stockToWaste.model.moveTopStockCardToWaste();
+		return stockToWaste.model.undo();
+	}
+	
+	@Benchmark
+	public int moveWasteToStock() {
+		wasteToStock.model.moveWasteToStock();
+		return wasteToStock.model.undo();
+	}
+	
+	@Benchmark
+	public int moveTopWasteCardToFoundation() {
+		wasteToFoundation.model.moveTopWasteCardToFoundation();
+		return wasteToFoundation.model.undo();
+	}
+	
+	@Benchmark
+	public int moveTopWasteCardToTableau() {
+		wasteToTableau.model.moveTopWasteCardToTableau(Move.dest(wasteToTableau.move));
+		return wasteToTableau.model.undo();
+	}
+	
+	@Benchmark
+	public int moveTableauCardToFoundation() {
+		tableauToFoundation.model.moveTableauCardToFoundation(Move.source(tableauToFoundation.move));
+		return tableauToFoundation.model.undo();
+	}
+	
+	@Benchmark
+	public int moveCardsWithinTableau() {
+		int move = tableauToTableau.move;
+		tableauToTableau.model.moveCardsWithinTableau(Move.source(move), Move.dest(move));
+		return tableauToTableau.model.undo();
+	}
+	
+	@Benchmark
+	public int moveCardFromFoundationToTableau() {
+		int move = foundationToTableau.move;
+		foundationToTableau.model.moveCardFromFoundationToTableau(Move.source(move), Move.dest(move));
+		return foundationToTableau.model.undo();
+	}
+	
+	@Benchmark
+	public int generateMoves() {
+		return midGame.generateMoves(moves);
+	}
+	
+	@Benchmark
+	public void gameOver(Blackhole blackhole) {
+		blackhole.consume(midGame.gameOver());
+	}
+}
@@ -0,0 +1,69 @@
+package benchmarks;
+
+import java.util.Random;
+
+import gameplay.*;
+
+/**
+ * Positions finds reproducible game positions for the benchmarks to start from
+ * @author Yael Goldin
+ */
+final class Positions {
+	private static final int MAX_PLAYOUT_MOVES = 200;
+	
+	//not instantiable
+	private Positions() {
+	}
+	
+	/**
+	 * plays random legal moves from seeded deals until the position has a legal move of the given type
+	 * 
+	 * @param moveType One of the Move type constants
+	 * @return a model whose current position has that move, and the move itself
+	 */
+	static Found withMove(int moveType) {
+		Random rand = new Random(moveType);
+		MoveBuffer moves = new MoveBuffer();
+		for(long seed = 0; ; seed++) {
+			SolitaireModel model = new SolitaireModel(seed);
+			for(int i = 0; i < MAX_PLAYOUT_MOVES && model.generateMoves(moves) > 0; i++) {
+				for(int m = 0; m < moves.size(); m++) {
+					if(Move.type(moves.get(m)) == moveType) {
+						return new Found(model, moves.get(m));
+					}
+				}
+				model.apply(moves.get(rand.nextInt(moves.size())));
+			}
+		}
+	}
+	
+	/**
+	 * plays the given number of random legal moves from a seeded deal
+	 * 
+	 * @param seed The seed of the deal
+	 * @param moveCount How many moves to play, if the game lasts that long
+	 * @return the model after the moves
+	 */
+	static SolitaireModel midGame(long seed, int moveCount) {
+		Random rand = new Random(seed);
+		MoveBuffer moves = new MoveBuffer();
+		SolitaireModel model = new SolitaireModel(seed);
+		for(int i = 0; i < moveCount && model.generateMoves(moves) > 0; i++) {
+			model.apply(moves.get(rand.nextInt(moves.size())));
+		}
+		return model;
+	}
+	
+	/**
+	 * a model and a legal move in its current position
+	 */
+	static final class Found {
+		final SolitaireModel model;
+		final int move;
+		
+		Found(SolitaireModel model, int move) {
+			this.model = model;
+			this.move = move;
+		}
+	}
+}
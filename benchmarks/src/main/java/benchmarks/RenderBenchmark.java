@@ -0,0 +1,59 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import gameplay.MoveBuffer;
+import gameplay.SolitaireModel;
+import gameplay.TextRenderer;
+
+/**
+ * RenderBenchmark measures drawing the text view of a game
+ * @author Yael Goldin
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RenderBenchmark {
+	private SolitaireModel freshDeal;
+	private SolitaireModel midGame;
+	private TextRenderer midGameRenderer;
+	private int midGameMove;
+	
+	@Setup
+	public void setUp() {
+		freshDeal = new SolitaireModel(1);
+		midGame = Positions.midGame(1, 60);
+		midGameRenderer = new TextRenderer(midGame);
+		MoveBuffer moves = new MoveBuffer();
+		midGame.generateMoves(moves);
+		midGameMove = moves.get(0);
+	}
+	
+	@Benchmark
+	public String renderFreshDeal() {
+		return freshDeal.toString();
+	}
+	
+	@Benchmark
+	public String renderMidGame() {
+		return midGame.toString();
+	}
+	
+	@Benchmark
+	public int renderMidGameCached() {
+		return midGameRenderer.render().length();
+	}
+	
+	@Benchmark
+	public int renderMidGameAfterMoves() {
+		midGame.apply(midGameMove);
+		int length = midGameRenderer.render().length();
+		midGame.undo();
+		return length + midGameRenderer.render().length();
+	}
+}
@@ -0,0 +1,186 @@
+package analysis;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import setup.Variant;
+import solver.*;
+
+/**
+ * BatchAnalyzer solves every deal in a range of seeds on a pool of threads and streams one record per
+ * seed to a file, in seed order. Every deal is played as the same variant, DRAW_ONE unless another is given.
+ * 
+ * Usage: BatchAnalyzer firstSeed count outputFile [csv|binary] [threads] [nodeLimit] [timeLimitMillis] [variant]
+ * 
+ * A CSV record is "seed,result,nodes,micros". A binary record is 25 bytes: the seed (8 bytes), the
+ * ordinal of the SolveResult.Outcome (1 byte), the nodes (8 bytes) and the nanoseconds (8 bytes), all
+ * big-endian. Seeds are solved in chunks, and only a few chunks are ever in memory at once, so any
+ * number of seeds can be analyzed with constant memory.
+ * @author Yael Goldin
+ */
+public class BatchAnalyzer {
+	public static final int BINARY_RECORD_SIZE = Long.BYTES + 1 + Long.BYTES + Long.BYTES;
+	private static final int CHUNK_SIZE = 256;
+	private static final long PROGRESS_INTERVAL_NANOS = 5_000_000_000L;
+	
+	private final int threads;
+	private final boolean binary;
+	private final Variant variant;
+	private final ThreadLocal<KlondikeSolver> solvers;
+	private final long[] outcomeCounts;
+	
+	/**
+	 * initializes an analyzer
+	 * 
+	 * @param threads The number of threads to solve on
+	 * @param nodeLimit The most moves to make solving one deal
+	 * @param timeLimitMillis The most time to spend solving one deal
+	 * @param binary True to write binary records, false to write CSV
+	 * @param variant The variant to play every deal as
+	 * @throws IllegalArgumentException if any of the numbers are not positive or the variant is null
+	 */
+	public BatchAnalyzer(int threads, long nodeLimit, long timeLimitMillis, boolean binary, Variant variant) {
+		if(threads < 1 || nodeLimit < 1 || timeLimitMillis < 1 || variant == null) {
+			throw new IllegalArgumentException("invalid threads/limits/variant");
+		}
+		this.threads = threads;
+		this.binary = binary;
+		this.variant = variant;
+		solvers = ThreadLocal.withInitial(() -> new KlondikeSolver(nodeLimit, timeLimitMillis,
+				KlondikeSolver.DEFAULT_TABLE_SIZE_POWER_OF_TWO));
+		outcomeCounts = new long[SolveResult.Outcome.values().length];
+	}
+	
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if(args.length < 3) {
+			System.err.println("usage: BatchAnalyzer firstSeed count outputFile [csv|binary] [threads] [nodeLimit]"
+					+ " [timeLimitMillis] [variant]");
+			System.exit(1);
+		}
+		long firstSeed = Long.parseLong(args[0]);
+		long count = Long.parseLong(args[1]);
+		boolean binary = args.length > 3 && args[3].equalsIgnoreCase("binary");
+		int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+		long nodeLimit = args.length > 5 ? Long.parseLong(args[5]) : KlondikeSolver.DEFAULT_NODE_LIMIT;
+		long timeLimit = args.length > 6 ? Long.parseLong(args[6]) : KlondikeSolver.DEFAULT_TIME_LIMIT_MILLIS;
+		Variant variant = args.length > 7 ? Variant.valueOf(args[7].toUpperCase(Locale.ROOT)) : Variant.DRAW_ONE;
+		BatchAnalyzer analyzer = new BatchAnalyzer(threads, nodeLimit, timeLimit, binary, variant);
+		try(FileChannel out = FileChannel.open(Paths.get(args[2]), StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			analyzer.analyze(firstSeed, count, out);
+		}
+	}
+	
+	/**
+	 * solves the deals with seeds [firstSeed, firstSeed + count) and writes their records to the channel,
+	 * printing the throughput to System.err as it goes
+	 * 
+	 * @param firstSeed The first seed to solve
+	 * @param count The number of seeds to solve
+	 * @param out The channel to write the records to
+	 * @throws IOException if writing to the channel fails
+	 * @throws InterruptedException if the thread is interrupted while waiting for results
+	 */
+	public void analyze(long firstSeed, long count, FileChannel out) throws IOException, InterruptedException {
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		Deque<Future<ByteBuffer>> inFlight = new ArrayDeque<>();
+		int maxInFlight = threads * 2;
+		long startTime = System.nanoTime();
+		long lastProgress = startTime;
+		long written = 0;
+		try {
+			for(long chunkStart = firstSeed; chunkStart - firstSeed < count; chunkStart += CHUNK_SIZE) {
+				long start = chunkStart;
+				int size = (int) Math.min(CHUNK_SIZE, count - (chunkStart - firstSeed));
+				inFlight.add(pool.submit(() -> solveChunk(start, size)));
+				if(inFlight.size() >= maxInFlight) {
+					written += writeChunk(inFlight.poll(), out);
+				}
+				if(System.nanoTime() - lastProgress > PROGRESS_INTERVAL_NANOS) {
+					lastProgress = System.nanoTime();
+					printProgress(written, lastProgress - startTime);
+				}
+			}
+			while(!inFlight.isEmpty()) {
+				written += writeChunk(inFlight.poll(), out);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		printProgress(written, System.nanoTime() - startTime);
+	}
+	
+	//solves one chunk of seeds and encodes their records
+	private ByteBuffer solveChunk(long firstSeed, int size) {
+		KlondikeSolver solver = solvers.get();
+		StringBuilder csv = binary ? null : new StringBuilder(size * 32);
+		ByteBuffer records = binary ? ByteBuffer.allocate(size * BINARY_RECORD_SIZE) : null;
+		for(long seed = firstSeed; seed < firstSeed + size; seed++) {
+			SolveResult result = solver.solve(seed, variant);
+			if(binary) {
+				records.putLong(seed).put((byte) result.outcome.ordinal()).putLong(result.nodes)
+						.putLong(result.elapsedNanos);
+			} else {
+				csv.append(seed).append(',').append(result.outcome).append(',').append(result.nodes).append(',')
+						.append(result.elapsedNanos / 1000).append('\n');
+			}
+			synchronized(outcomeCounts) {
+				outcomeCounts[result.outcome.ordinal()]++;
+			}
+		}
+		if(binary) {
+			records.flip();
+			return records;
+		}
+		return ByteBuffer.wrap(csv.toString().getBytes(StandardCharsets.US_ASCII));
+	}
+	
+	//waits for a chunk and writes all of it, returning the number of records written
+	private int writeChunk(Future<ByteBuffer> chunk, FileChannel out) throws IOException, InterruptedException {
+		ByteBuffer records;
+		try {
+			records = chunk.get();
+		} catch(ExecutionException e) {
+			throw new IllegalStateException("solving a chunk failed", e.getCause());
+		}
+		int recordCount = binary ? records.remaining() / BINARY_RECORD_SIZE : countLines(records);
+		while(records.hasRemaining()) {
+			out.write(records);
+		}
+		return recordCount;
+	}
+	
+	//counts the CSV records in the buffer
+	private static int countLines(ByteBuffer records) {
+		int lines = 0;
+		for(int i = records.position(); i < records.limit(); i++) {
+			if(records.get(i) == '\n') {
+				lines++;
+			}
+		}
+		return lines;
+	}
+	
+	//prints how many deals have been analyzed and how fast
+	private void printProgress(long written, long elapsedNanos) {
+		double seconds = elapsedNanos / 1e9;
+		String counts = "";
+		synchronized(outcomeCounts) {
+			for(SolveResult.Outcome outcome : SolveResult.Outcome.values()) {
+				counts += " " + outcome + "=" + outcomeCounts[outcome.ordinal()];
+			}
+		}
+		System.err.printf("%d deals in %.1f s (%.1f deals/s)%s%n", written, seconds, written / seconds, counts);
+	}
+}
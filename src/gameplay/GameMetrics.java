@@ -0,0 +1,245 @@
+package gameplay;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import metrics.LatencyHistogram;
+
+/**
+ * GameMetrics counts what every SolitaireModel in the process is doing: the moves made of each type
+ * (see Move), the moves each public method rejected, and how long each public method took
+ * 
+ * Metrics are only collected when the JVM is started with -Dsolitaire.metrics=true. Otherwise ENABLED
+ * is a constant false, the JIT compiles every check of it away and the models run exactly as fast as
+ * without metrics. Counting is safe from any number of threads.
+ * @author Yael Goldin
+ */
+public final class GameMetrics {
+	/**
+	 * whether metrics are being collected, which is fixed when the class is loaded
+	 */
+	public static final boolean ENABLED = Boolean.getBoolean("solitaire.metrics");
+	
+	/** the public methods of SolitaireModel that are timed */
+	public static final int MOVE_WASTE_TO_STOCK = 0;
+	public static final int MOVE_TOP_STOCK_CARD_TO_WASTE = 1;
+	public static final int MOVE_TOP_WASTE_CARD_TO_FOUNDATION = 2;
+	public static final int MOVE_TOP_WASTE_CARD_TO_TABLEAU = 3;
+	public static final int MOVE_CARD_FROM_FOUNDATION_TO_TABLEAU = 4;
+	public static final int MOVE_CARDS_WITHIN_TABLEAU = 5;
+	public static final int MOVE_TABLEAU_CARD_TO_FOUNDATION = 6;
+	public static final int APPLY = 7;
+	public static final int UNDO = 8;
+	public static final int TRY_APPLY = 9;
+	public static final int TRY_MOVE_WASTE_TO_STOCK = 10;
+	public static final int TRY_MOVE_TOP_STOCK_CARD_TO_WASTE = 11;
+	public static final int TRY_MOVE_TOP_WASTE_CARD_TO_FOUNDATION = 12;
+	public static final int TRY_MOVE_TOP_WASTE_CARD_TO_TABLEAU = 13;
+	public static final int TRY_MOVE_CARD_FROM_FOUNDATION_TO_TABLEAU = 14;
+	public static final int TRY_MOVE_CARDS_WITHIN_TABLEAU = 15;
+	public static final int TRY_MOVE_TABLEAU_CARD_TO_FOUNDATION = 16;
+	public static final int TRY_UNDO = 17;
+	public static final int APPLY_SAFE_FOUNDATION_MOVES = 18;
+	public static final int AUTOCOMPLETE = 19;
+	public static final int TO_STRING = 20;
+	/** the number of timed methods */
+	public static final int OPERATION_COUNT = 21;
+	
+	private static final String[] OPERATION_NAMES = {"moveWasteToStock", "moveTopStockCardToWaste",
+			"moveTopWasteCardToFoundation", "moveTopWasteCardToTableau", "moveCardFromFoundationToTableau",
+			"moveCardsWithinTableau", "moveTableauCardToFoundation", "apply", "undo", "tryApply",
+			"tryMoveWasteToStock", "tryMoveTopStockCardToWaste", "tryMoveTopWasteCardToFoundation",
+			"tryMoveTopWasteCardToTableau", "tryMoveCardFromFoundationToTableau", "tryMoveCardsWithinTableau",
+			"tryMoveTableauCardToFoundation", "tryUndo", "applySafeFoundationMoves", "autocomplete", "toString"
+	};
+	private static final String[] MOVE_TYPE_NAMES = {"Stock -> Waste", "Waste -> Stock", "Waste -> Foundation",
+			"Waste -> Tableau", "Tableau -> Foundation", "Tableau -> Tableau", "Foundation -> Tableau"
+	};
+	
+	//only allocated when metrics are enabled
+	private static final LongAdder[] MOVES_MADE = ENABLED ? adders(MOVE_TYPE_NAMES.length) : null;
+	private static final LongAdder MOVES_UNDONE = ENABLED ? new LongAdder() : null;
+	private static final LongAdder[] REJECTED = ENABLED ? adders(OPERATION_COUNT) : null;
+	private static final LatencyHistogram[] LATENCIES = ENABLED ? histograms(OPERATION_COUNT) : null;
+	
+	//not instantiable
+	private GameMetrics() {
+	}
+	
+	//creates the counters
+	private static LongAdder[] adders(int count) {
+		LongAdder[] result = new LongAdder[count];
+		for(int i = 0; i < count; i++) {
+			result[i] = new LongAdder();
+		}
+		return result;
+	}
+	
+	//creates the histograms
+	private static LatencyHistogram[] histograms(int count) {
+		LatencyHistogram[] result = new LatencyHistogram[count];
+		for(int i = 0; i < count; i++) {
+			result[i] = new LatencyHistogram();
+		}
+		return result;
+	}
+	
+	/* ************************recording, called by SolitaireModel****************************** */
+	
+	//the time an operation started, or 0 if metrics are disabled
+	static long start() {
+		return ENABLED ? System.nanoTime() : 0;
+	}
+	
+	//records how long an operation that did what it was asked took
+	static void finished(int operation, long start) {
+		if(ENABLED) {
+			LATENCIES[operation].record(System.nanoTime() - start);
+		}
+	}
+	
+	//records an operation that refused to make its move
+	static void rejected(int operation) {
+		if(ENABLED) {
+			REJECTED[operation].increment();
+		}
+	}
+	
+	//records the status a try method returned, and passes it on
+	static int tried(int operation, long start, int status) {
+		if(status == MoveStatus.OK) {
+			finished(operation, start);
+		} else {
+			rejected(operation);
+		}
+		return status;
+	}
+	
+	//records a move of the given type (see Move) being made
+	static void moveMade(int type) {
+		if(ENABLED) {
+			MOVES_MADE[type].increment();
+		}
+	}
+	
+	//records a move being undone
+	static void moveUndone() {
+		if(ENABLED) {
+			MOVES_UNDONE.increment();
+		}
+	}
+	
+	/* ************************reading the metrics********************************************** */
+	
+	/**
+	 * finds how many moves of a type have been made, whichever method made them
+	 * 
+	 * @param type The move type (see Move)
+	 * @return the number of moves, which is always 0 if metrics are disabled
+	 * @throws IllegalArgumentException if the type is invalid
+	 */
+	public static long movesMade(int type) {
+		if(type < 0 || type >= MOVE_TYPE_NAMES.length) {
+			throw new IllegalArgumentException("invalid move type");
+		}
+		return ENABLED ? MOVES_MADE[type].sum() : 0;
+	}
+	
+	/**
+	 * finds how many moves have been undone
+	 * 
+	 * @return the number of moves, which is always 0 if metrics are disabled
+	 */
+	public static long movesUndone() {
+		return ENABLED ? MOVES_UNDONE.sum() : 0;
+	}
+	
+	/**
+	 * finds how many times a method refused to make its move, by throwing, returning false or
+	 * returning a MoveStatus other than OK
+	 * 
+	 * @param operation The method, one of the operation constants in this class
+	 * @return the number of rejected moves, which is always 0 if metrics are disabled
+	 * @throws IllegalArgumentException if the operation is invalid
+	 */
+	public static long rejectedMoves(int operation) {
+		checkOperation(operation);
+		return ENABLED ? REJECTED[operation].sum() : 0;
+	}
+	
+	/**
+	 * finds how long the calls of a method that did what they were asked took
+	 * 
+	 * @param operation The method, one of the operation constants in this class
+	 * @return the histogram of latencies, or null if metrics are disabled
+	 * @throws IllegalArgumentException if the operation is invalid
+	 */
+	public static LatencyHistogram latencies(int operation) {
+		checkOperation(operation);
+		return ENABLED ? LATENCIES[operation] : null;
+	}
+	
+	/**
+	 * finds the name of a timed method
+	 * 
+	 * @param operation The method, one of the operation constants in this class
+	 * @return the name of the method
+	 * @throws IllegalArgumentException if the operation is invalid
+	 */
+	public static String operationName(int operation) {
+		checkOperation(operation);
+		return OPERATION_NAMES[operation];
+	}
+	
+	/**
+	 * starts counting from zero again
+	 * anything recorded while this runs may or may not be kept
+	 */
+	public static void reset() {
+		if(ENABLED) {
+			for(LongAdder adder : MOVES_MADE) {
+				adder.reset();
+			}
+			MOVES_UNDONE.reset();
+			for(int operation = 0; operation < OPERATION_COUNT; operation++) {
+				REJECTED[operation].reset();
+				LATENCIES[operation].reset();
+			}
+		}
+	}
+	
+	/**
+	 * describes every metric, one per line, leaving out the methods that have not been called
+	 * the latencies are the 50th, 99th and 100th percentiles in nanoseconds
+	 * 
+	 * @return the report, or a line saying metrics are disabled
+	 */
+	public static String report() {
+		if(!ENABLED) {
+			return "metrics are disabled (run with -Dsolitaire.metrics=true)";
+		}
+		StringBuilder result = new StringBuilder();
+		for(int type = 0; type < MOVE_TYPE_NAMES.length; type++) {
+			result.append(MOVE_TYPE_NAMES[type]).append(": ").append(movesMade(type)).append(" made\n");
+		}
+		result.append("undone: ").append(movesUndone()).append('\n');
+		for(int operation = 0; operation < OPERATION_COUNT; operation++) {
+			LatencyHistogram latencies = LATENCIES[operation];
+			long calls = latencies.count();
+			long rejected = rejectedMoves(operation);
+			if(calls > 0 || rejected > 0) {
+				result.append(OPERATION_NAMES[operation]).append(": ").append(calls).append(" calls, ")
+						.append(rejected).append(" rejected, p50/p99/max ").append(latencies.percentileNanos(0.5))
+						.append('/').append(latencies.percentileNanos(0.99)).append('/')
+						.append(latencies.percentileNanos(1)).append(" ns\n");
+			}
+		}
+		return result.substring(0, result.length() - 1);
+	}
+	
+	//throws exception for an invalid operation
+	private static void checkOperation(int operation) {
+		if(operation < 0 || operation >= OPERATION_COUNT) {
+			throw new IllegalArgumentException("invalid operation");
+		}
+	}
+}
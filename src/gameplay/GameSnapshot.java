@@ -0,0 +1,152 @@
+package gameplay;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32C;
+
+/**
+ * GameSnapshot saves a game in progress to a fixed-size binary snapshot and restores it again
+ * 
+ * A snapshot is SNAPSHOT_SIZE bytes, big-endian:
+ * 		4 bytes: MAGIC
+ * 		4 bytes: the VERSION of the format it was written with
+ * 		8 bytes: the seed of the game
+ * 		PackedSolitaireState.PACKED_SIZE bytes: the position (see PackedSolitaireState)
+ * 		4 bytes: a CRC32C checksum of everything before it
+ * The undo history is not saved, so a restored game starts with no moves to undo. Snapshots of the first
+ * version, from before there were variants, hold the shorter draw one position and are still read.
+ * @author Yael Goldin
+ */
+public final class GameSnapshot {
+	public static final int MAGIC = 0x534F4C53;
+	public static final int VERSION = 2;
+	private static final int DRAW_ONE_VERSION = 1;
+	private static final int STATE_OFFSET = Integer.BYTES + Integer.BYTES + Long.BYTES;
+	private static final int CHECKSUM_OFFSET = STATE_OFFSET + PackedSolitaireState.PACKED_SIZE;
+	private static final int DRAW_ONE_CHECKSUM_OFFSET = STATE_OFFSET + PackedSolitaireState.DRAW_ONE_PACKED_SIZE;
+	
+	/**
+	 * the number of bytes in every snapshot
+	 */
+	public static final int SNAPSHOT_SIZE = CHECKSUM_OFFSET + Integer.BYTES;
+	
+	//not instantiable
+	private GameSnapshot() {
+	}
+	
+	/**
+	 * writes a snapshot of the game into the given array
+	 * 
+	 * @param model The game to save
+	 * @param dest The array to write to
+	 * @param offset Where in the array to start writing the SNAPSHOT_SIZE bytes
+	 * @throws IllegalArgumentException if the model is null
+	 * @throws IndexOutOfBoundsException if the array does not have SNAPSHOT_SIZE bytes after the offset
+	 */
+	public static void write(SolitaireModel model, byte[] dest, int offset) {
+		if(model == null) {
+			throw new IllegalArgumentException("null model");
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(dest, offset, SNAPSHOT_SIZE);
+		buffer.putInt(MAGIC).putInt(VERSION).putLong(model.getSeed());
+		PackedSolitaireState.pack(model, dest, offset + STATE_OFFSET);
+		buffer.putInt(offset + CHECKSUM_OFFSET, checksum(dest, offset, CHECKSUM_OFFSET));
+	}
+	
+	/**
+	 * takes a snapshot of the game
+	 * 
+	 * @param model The game to save
+	 * @return a new array with the SNAPSHOT_SIZE bytes of the snapshot
+	 * @throws IllegalArgumentException if the model is null
+	 */
+	public static byte[] toBytes(SolitaireModel model) {
+		byte[] snapshot = new byte[SNAPSHOT_SIZE];
+		write(model, snapshot, 0);
+		return snapshot;
+	}
+	
+	/**
+	 * restores a game from a snapshot written by write or toBytes
+	 * 
+	 * @param src The array to read from
+	 * @param offset Where in the array the snapshot starts, which is SNAPSHOT_SIZE bytes long unless it is
+	 * 		of the first version
+	 * @return a new model at the saved position, with the saved seed
+	 * @throws IllegalArgumentException if the bytes are not a valid snapshot of a supported version
+	 * @throws IndexOutOfBoundsException if the array ends before the snapshot does
+	 */
+	public static SolitaireModel read(byte[] src, int offset) {
+		ByteBuffer buffer = ByteBuffer.wrap(src, offset, Integer.BYTES + Integer.BYTES);
+		if(buffer.getInt() != MAGIC) {
+			throw new IllegalArgumentException("not a snapshot");
+		}
+		int version = buffer.getInt();
+		int checksumOffset;
+		if(version == VERSION) {
+			checksumOffset = CHECKSUM_OFFSET;
+		} else if(version == DRAW_ONE_VERSION) {
+			checksumOffset = DRAW_ONE_CHECKSUM_OFFSET;
+		} else {
+			throw new IllegalArgumentException("unsupported snapshot version");
+		}
+		buffer = ByteBuffer.wrap(src, offset, checksumOffset + Integer.BYTES);
+		if(buffer.getInt(offset + checksumOffset) != checksum(src, offset, checksumOffset)) {
+			throw new IllegalArgumentException("corrupt snapshot");
+		}
+		long seed = buffer.getLong(offset + STATE_OFFSET - Long.BYTES);
+		try {
+			return PackedSolitaireState.fromBytes(src, offset + STATE_OFFSET, checksumOffset - STATE_OFFSET)
+					.toModel(seed);
+		} catch(IllegalStateException e) {
+			throw new IllegalArgumentException("corrupt snapshot", e);
+		}
+	}
+	
+	/**
+	 * saves a snapshot of the game to a file
+	 * the file is replaced in one step, so it is never left half written
+	 * 
+	 * @param model The game to save
+	 * @param file The file to save to
+	 * @throws IllegalArgumentException if the model is null
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void save(SolitaireModel model, Path file) throws IOException {
+		byte[] snapshot = toBytes(model);
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		Files.write(temp, snapshot);
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+	
+	/**
+	 * restores a game from a file written by save
+	 * 
+	 * @param file The file to read
+	 * @return a new model at the saved position, with the saved seed
+	 * @throws IOException if the file cannot be read or is not a valid snapshot
+	 */
+	public static SolitaireModel load(Path file) throws IOException {
+		byte[] snapshot = Files.readAllBytes(file);
+		int version = snapshot.length < STATE_OFFSET ? VERSION : ByteBuffer.wrap(snapshot).getInt(Integer.BYTES);
+		int size = version == DRAW_ONE_VERSION ? DRAW_ONE_CHECKSUM_OFFSET + Integer.BYTES : SNAPSHOT_SIZE;
+		if(snapshot.length != size) {
+			throw new IOException("wrong snapshot size: " + file);
+		}
+		try {
+			return read(snapshot, 0);
+		} catch(IllegalArgumentException e) {
+			throw new IOException(e.getMessage() + ": " + file, e);
+		}
+	}
+	
+	//the checksum of the bytes of a snapshot before its checksum, which starts at the given offset into it
+	private static int checksum(byte[] snapshot, int offset, int checksumOffset) {
+		CRC32C crc = new CRC32C();
+		crc.update(snapshot, offset, checksumOffset);
+		return (int) crc.getValue();
+	}
+}
@@ -0,0 +1,89 @@
+package gameplay;
+
+import setup.Card;
+
+/**
+ * GameView is a read-only view of a game of solitaire, showing only what a player can see
+ * @author Yael Goldin
+ */
+public interface GameView {
+	
+	/**
+	 * fills the buffer with every legal move in the current position (see SolitaireModel.generateMoves)
+	 * 
+	 * @param buffer The buffer to fill with encoded moves
+	 * @return the number of legal moves
+	 */
+	int generateMoves(MoveBuffer buffer);
+	
+	/**
+	 * checks if the game is over
+	 * 
+	 * @return true if all of the foundations are filled, false otherwise
+	 */
+	boolean gameOver();
+	
+	/**
+	 * checks how many cards are in the stock
+	 * 
+	 * @return the number of cards
+	 */
+	int stockSize();
+	
+	/**
+	 * checks how many cards are in the waste pile
+	 * 
+	 * @return the number of cards
+	 */
+	int wasteSize();
+	
+	/**
+	 * looks at the top card of the waste pile
+	 * 
+	 * @return the top card
+	 * @throws IllegalStateException if the waste pile is empty
+	 */
+	Card peekAtTopWasteCard();
+	
+	/**
+	 * checks if the given tableau pile is empty
+	 * 
+	 * @param index The tableau pile to look at
+	 * @return true if it is, false otherwise
+	 */
+	boolean tableauPileIsEmpty(int index);
+	
+	/**
+	 * looks at one of the visible cards of the given tableau pile
+	 * 
+	 * @param tableauIndex The tableau pile to look at
+	 * @param depth How far the card is from the top of the pile, where 0 is the top card
+	 * @return the card
+	 * @throws IllegalArgumentException if the card is not visible
+	 */
+	Card peekAtVisibleTableauCard(int tableauIndex, int depth);
+	
+	/**
+	 * checks how many cards are visible on the given tableau pile
+	 * 
+	 * @param tableauIndex The tableau pile to look at
+	 * @return the number of visible cards
+	 */
+	int numVisibleCards(int tableauIndex);
+	
+	/**
+	 * checks how many cards are hidden on the given tableau pile
+	 * 
+	 * @param tableauIndex The tableau pile to look at
+	 * @return the number of hidden cards
+	 */
+	int numHiddenCards(int tableauIndex);
+	
+	/**
+	 * checks how many cards are on the given foundation
+	 * 
+	 * @param foundationIndex The foundation to look at
+	 * @return the number of cards
+	 */
+	int foundationSize(int foundationIndex);
+}
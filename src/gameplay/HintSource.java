@@ -0,0 +1,32 @@
+package gameplay;
+
+import java.time.Duration;
+
+/**
+ * HintSource suggests moves to a player. The text interface asks one for its hints, so the search that
+ * finds them can live outside of gameplay (see solver.HintEngine).
+ * @author Yael Goldin
+ */
+@FunctionalInterface
+public interface HintSource {
+	/**
+	 * how long the text interface lets a hint take
+	 */
+	Duration DEFAULT_BUDGET = Duration.ofMillis(20);
+	
+	/**
+	 * returned by hint when there are no legal moves
+	 */
+	int NO_HINT = -1;
+	
+	/**
+	 * finds the best move in the current position that can be found within the time budget
+	 * the model is not changed
+	 * 
+	 * @param model The game to find a move for
+	 * @param budget How long to search for
+	 * @return one of the encoded moves (see Move) generated for the position, or NO_HINT if there are none
+	 * @throws IllegalArgumentException if the model or budget is null
+	 */
+	int hint(SolitaireModel model, Duration budget);
+}
@@ -0,0 +1,113 @@
+package gameplay;
+
+/**
+ * Move encodes a single solitaire move as a primitive int so moves can be generated and stored
+ * without allocating
+ * 
+ * The bits of a move are laid out as:
+ * 		bits 0-3: the type of the move
+ * 		bits 4-7: the source pile index (tableau or foundation, 0 if unused)
+ * 		bits 8-11: the destination pile index (tableau or foundation, 0 if unused)
+ * 		bits 12-17: the number of cards moved
+ * @author Yael Goldin
+ */
+public final class Move {
+	public static final int STOCK_TO_WASTE = 0;
+	public static final int WASTE_TO_STOCK = 1;
+	public static final int WASTE_TO_FOUNDATION = 2;
+	public static final int WASTE_TO_TABLEAU = 3;
+	public static final int TABLEAU_TO_FOUNDATION = 4;
+	public static final int TABLEAU_TO_TABLEAU = 5;
+	public static final int FOUNDATION_TO_TABLEAU = 6;
+	
+	/**
+	 * the most moves that can be legal in any single position
+	 */
+	public static final int MAX_LEGAL_MOVES = 2 + 2 * SolitaireModel.TABLEAU_SIZE + 1
+			+ SolitaireModel.TABLEAU_SIZE * (SolitaireModel.TABLEAU_SIZE - 1) + 4 * SolitaireModel.TABLEAU_SIZE;
+	
+	private static final int SOURCE_SHIFT = 4;
+	private static final int DEST_SHIFT = 8;
+	private static final int COUNT_SHIFT = 12;
+	private static final int NIBBLE = 0xF;
+	private static final int COUNT_MASK = 0x3F;
+	private static final String[] TYPE_NAMES = {"Stock -> Waste", "Waste -> Stock", "Waste -> Foundation",
+			"Waste -> Tableau", "Tableau -> Foundation", "Tableau -> Tableau", "Foundation -> Tableau"};
+	
+	//not instantiable
+	private Move() {
+	}
+	
+	/**
+	 * encodes a move
+	 * 
+	 * @param type The type of the move, one of the constants in this class
+	 * @param source The index of the source tableau pile or foundation
+	 * @param dest The index of the destination tableau pile or foundation
+	 * @param count The number of cards moved
+	 * @return the encoded move
+	 */
+	public static int of(int type, int source, int dest, int count) {
+		return type | source << SOURCE_SHIFT | dest << DEST_SHIFT | count << COUNT_SHIFT;
+	}
+	
+	/**
+	 * finds the type of the move
+	 * 
+	 * @param move The encoded move
+	 * @return the type, one of the constants in this class
+	 */
+	public static int type(int move) {
+		return move & NIBBLE;
+	}
+	
+	/**
+	 * finds the source pile of the move
+	 * 
+	 * @param move The encoded move
+	 * @return the index of the source tableau pile or foundation
+	 */
+	public static int source(int move) {
+		return move >>> SOURCE_SHIFT & NIBBLE;
+	}
+	
+	/**
+	 * finds the destination pile of the move
+	 * 
+	 * @param move The encoded move
+	 * @return the index of the destination tableau pile or foundation
+	 */
+	public static int dest(int move) {
+		return move >>> DEST_SHIFT & NIBBLE;
+	}
+	
+	/**
+	 * finds the number of cards moved
+	 * 
+	 * @param move The encoded move
+	 * @return the number of cards
+	 */
+	public static int count(int move) {
+		return move >>> COUNT_SHIFT & COUNT_MASK;
+	}
+	
+	/**
+	 * describes the move in a readable form, using 1-based pile numbers like the text interface
+	 * 
+	 * @param move The encoded move
+	 * @return the description of the move
+	 */
+	public static String toString(int move) {
+		int type = type(move);
+		String result = TYPE_NAMES[type];
+		if(type == WASTE_TO_FOUNDATION || type == WASTE_TO_TABLEAU) {
+			result += " " + (dest(move) + 1);
+		} else if(type != STOCK_TO_WASTE && type != WASTE_TO_STOCK) {
+			result += " " + (source(move) + 1) + " -> " + (dest(move) + 1);
+		}
+		if(count(move) > 1) {
+			result += " (" + count(move) + " cards)";
+		}
+		return result;
+	}
+}
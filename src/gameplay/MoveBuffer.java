@@ -0,0 +1,94 @@
+package gameplay;
+
+/**
+ * MoveBuffer is a reusable list of encoded moves that is filled by SolitaireModel.generateMoves
+ * @author Yael Goldin
+ */
+public final class MoveBuffer {
+	private final int[] moves;
+	private int size;
+	
+	/**
+	 * initializes an empty buffer big enough for all of the legal moves in any position
+	 */
+	public MoveBuffer() {
+		moves = new int[Move.MAX_LEGAL_MOVES];
+	}
+	
+	/**
+	 * initializes an empty buffer with room for more moves than generateMoves can add, for callers that add
+	 * moves of their own
+	 * 
+	 * @param capacity The most moves the buffer can hold
+	 * @throws IllegalArgumentException if the capacity is less than Move.MAX_LEGAL_MOVES
+	 */
+	public MoveBuffer(int capacity) {
+		if(capacity < Move.MAX_LEGAL_MOVES) {
+			throw new IllegalArgumentException("capacity below Move.MAX_LEGAL_MOVES");
+		}
+		moves = new int[capacity];
+	}
+	
+	/**
+	 * adds a move to the end of the buffer
+	 * 
+	 * @param move The encoded move
+	 */
+	public void add(int move) {
+		moves[size++] = move;
+	}
+	
+	/**
+	 * looks at the move at the given position
+	 * 
+	 * @param index The position of the move, in the range [0, size())
+	 * @return the encoded move
+	 */
+	public int get(int index) {
+		return moves[index];
+	}
+	
+	/**
+	 * replaces the move at the given position
+	 * 
+	 * @param index The position of the move, in the range [0, size())
+	 * @param move The encoded move
+	 */
+	public void set(int index, int move) {
+		moves[index] = move;
+	}
+	
+	/**
+	 * finds the number of moves in the buffer
+	 * 
+	 * @return the number of moves
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * checks if the buffer has no moves
+	 * 
+	 * @return true if it is empty, false otherwise
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	
+	/**
+	 * removes the moves after the given position
+	 * 
+	 * @param newSize The number of moves to keep, in the range [0, size()]
+	 */
+	public void truncate(int newSize) {
+		size = newSize;
+	}
+	
+	/**
+	 * removes all of the moves from the buffer
+	 */
+	public void clear() {
+		size = 0;
+	}
+}
@@ -0,0 +1,38 @@
+package gameplay;
+
+/**
+ * MoveStatus holds the status codes returned by the try methods of SolitaireModel, which report why a
+ * move could not be made instead of throwing
+ * @author Yael Goldin
+ */
+public final class MoveStatus {
+	/** the move was made */
+	public static final int OK = 0;
+	/** no moves can be made because every foundation is full */
+	public static final int GAME_OVER = 1;
+	/** a tableau or foundation index is out of range */
+	public static final int INVALID_PILE = 2;
+	/** the pile to move from has no cards, or there is no move to undo */
+	public static final int EMPTY_PILE = 3;
+	/** the cards cannot be placed where the move puts them */
+	public static final int ILLEGAL_MOVE = 4;
+	
+	private static final String[] NAMES = {"OK", "game over", "invalid pile", "empty pile", "illegal move"};
+	
+	//not instantiable
+	private MoveStatus() {
+	}
+	
+	/**
+	 * describes a status code
+	 * 
+	 * @param status The status, one of the constants in this class
+	 * @return a short description of the status
+	 */
+	public static String toString(int status) {
+		if(status < 0 || status >= NAMES.length) {
+			return "unknown status " + status;
+		}
+		return NAMES[status];
+	}
+}
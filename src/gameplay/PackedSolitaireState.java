@@ -0,0 +1,245 @@
+package gameplay;
+
+import java.util.Arrays;
+
+import setup.*;
+
+/**
+ * PackedSolitaireState is a compact, fixed-size encoding of a whole solitaire position
+ * 
+ * The position is stored in a single byte array laid out as:
+ * 		52 card bytes: the stock (bottom to top), then the waste (bottom to top), then each tableau pile
+ * 			(bottom to top), with unused bytes at the end for the cards on the foundations
+ * 		1 byte for the stock size and 1 byte for the waste size
+ * 		7 bytes for the size of each tableau pile, then 7 bytes for the visible cards of each tableau pile
+ * 		4 bytes for the number of cards on each foundation, in the order of Card.Suit.values()
+ * 		1 byte for the variant (its ordinal in Variant) and 1 byte for the passes through the stock made
+ * The first version of the layout ended after the foundations, and is read as a draw one game.
+ * @author Yael Goldin
+ */
+public final class PackedSolitaireState {
+	private static final int CARD_COUNT = Deck.DECK_SIZE;
+	private static final int STOCK_SIZE = CARD_COUNT;
+	private static final int WASTE_SIZE = STOCK_SIZE + 1;
+	private static final int TABLEAU_SIZES = WASTE_SIZE + 1;
+	private static final int TABLEAU_VISIBLE = TABLEAU_SIZES + SolitaireModel.TABLEAU_SIZE;
+	private static final int FOUNDATION_SIZES = TABLEAU_VISIBLE + SolitaireModel.TABLEAU_SIZE;
+	private static final int SUIT_COUNT = Card.Suit.values().length;
+	private static final int VARIANT = FOUNDATION_SIZES + SUIT_COUNT;
+	private static final int RECYCLES = VARIANT + 1;
+	
+	/**
+	 * the number of bytes used by every packed state
+	 */
+	public static final int PACKED_SIZE = RECYCLES + 1;
+	
+	/**
+	 * the number of bytes used by a packed state of the first version, which has no variant
+	 */
+	static final int DRAW_ONE_PACKED_SIZE = VARIANT;
+	
+	private final byte[] data;
+	
+	//wraps the given bytes without copying them
+	private PackedSolitaireState(byte[] data) {
+		this.data = data;
+	}
+	
+	/**
+	 * packs the current position of the given model
+	 * 
+	 * @param model The model to pack
+	 * @return the packed position
+	 * @throws IllegalArgumentException if the model is null
+	 */
+	public static PackedSolitaireState of(SolitaireModel model) {
+		byte[] data = new byte[PACKED_SIZE];
+		pack(model, data, 0);
+		return new PackedSolitaireState(data);
+	}
+	
+	/**
+	 * packs the current position of the given model into the given array
+	 * 
+	 * @param model The model to pack
+	 * @param dest The array to write to
+	 * @param offset Where in the array to start writing the PACKED_SIZE bytes
+	 * @throws IllegalArgumentException if the model is null
+	 * @throws IndexOutOfBoundsException if the array does not have PACKED_SIZE bytes after the offset
+	 */
+	public static void pack(SolitaireModel model, byte[] dest, int offset) {
+		if(model == null) {
+			throw new IllegalArgumentException("null model");
+		}
+		Arrays.fill(dest, offset, offset + PACKED_SIZE, (byte) 0);
+		int cardIdx = offset;
+		Stock stock = model.stock();
+		for(int i = 0; i < stock.size(); i++) {
+			dest[cardIdx++] = cardToByte(stock.cardAt(i));
+		}
+		Waste waste = model.waste();
+		for(int i = 0; i < waste.size(); i++) {
+			dest[cardIdx++] = cardToByte(waste.cardAt(i));
+		}
+		dest[offset + STOCK_SIZE] = (byte) stock.size();
+		dest[offset + WASTE_SIZE] = (byte) waste.size();
+		for(int t = 0; t < SolitaireModel.TABLEAU_SIZE; t++) {
+			TableauPile pile = model.tableauPile(t);
+			for(int i = 0; i < pile.size(); i++) {
+				dest[cardIdx++] = cardToByte(pile.cardAt(i));
+			}
+			dest[offset + TABLEAU_SIZES + t] = (byte) pile.size();
+			dest[offset + TABLEAU_VISIBLE + t] = (byte) pile.numVisibleCards();
+		}
+		for(int f = 0; f < SUIT_COUNT; f++) {
+			dest[offset + FOUNDATION_SIZES + f] = (byte) model.foundation(f).size();
+		}
+		dest[offset + VARIANT] = (byte) stock.variant().ordinal();
+		dest[offset + RECYCLES] = (byte) stock.recycles();
+	}
+	
+	/**
+	 * reads a packed state that was written with toByteArray or pack
+	 * 
+	 * @param src The array to read from
+	 * @param offset Where in the array the PACKED_SIZE bytes start
+	 * @return the packed state, which does not share the given array
+	 * @throws IndexOutOfBoundsException if the array does not have PACKED_SIZE bytes after the offset
+	 */
+	public static PackedSolitaireState fromBytes(byte[] src, int offset) {
+		return new PackedSolitaireState(Arrays.copyOfRange(src, offset, offset + PACKED_SIZE));
+	}
+	
+	//reads a packed state of the given size, where the bytes missing from the end of an older version
+	//are 0, which makes it a draw one game with no passes through the stock made
+	static PackedSolitaireState fromBytes(byte[] src, int offset, int length) {
+		byte[] data = new byte[PACKED_SIZE];
+		System.arraycopy(src, offset, data, 0, length);
+		return new PackedSolitaireState(data);
+	}
+	
+	/**
+	 * rebuilds a model at this position
+	 * the model's seed is 0, since the packed state only stores the position
+	 * 
+	 * @return a new model at this position
+	 * @throws IllegalStateException if the bytes do not describe a valid position, which holds every card
+	 * 		exactly once, has visible tableau cards that are descending runs of alternating colors and has
+	 * 		foundations built up from the ace
+	 */
+	public SolitaireModel toModel() {
+		return toModel(0);
+	}
+	
+	//rebuilds a model at this position that reports the given seed
+	SolitaireModel toModel(long seed) {
+		try {
+			int totalCards = size(STOCK_SIZE) + size(WASTE_SIZE);
+			for(int t = 0; t < SolitaireModel.TABLEAU_SIZE; t++) {
+				totalCards += size(TABLEAU_SIZES + t);
+			}
+			for(int f = 0; f < SUIT_COUNT; f++) {
+				totalCards += size(FOUNDATION_SIZES + f);
+			}
+			if(totalCards != CARD_COUNT) {
+				throw new IllegalArgumentException("wrong number of cards");
+			}
+			boolean[] seen = new boolean[CARD_COUNT];
+			int cardIdx = 0;
+			Card[] stockCards = new Card[size(STOCK_SIZE)];
+			for(int i = 0; i < stockCards.length; i++) {
+				stockCards[i] = readCard(data[cardIdx++], seen);
+			}
+			Waste waste = new Waste();
+			for(int i = 0; i < size(WASTE_SIZE); i++) {
+				waste.addCard(readCard(data[cardIdx++], seen));
+			}
+			Stock stock = Stock.of(Variant.values()[size(VARIANT)], stockCards, waste, size(RECYCLES));
+			TableauPile[] tableau = new TableauPile[SolitaireModel.TABLEAU_SIZE];
+			for(int t = 0; t < tableau.length; t++) {
+				Card[] pileCards = new Card[size(TABLEAU_SIZES + t)];
+				for(int i = 0; i < pileCards.length; i++) {
+					pileCards[i] = readCard(data[cardIdx++], seen);
+				}
+				int visible = size(TABLEAU_VISIBLE + t);
+				for(int i = pileCards.length - visible + 1; i < pileCards.length; i++) {
+					if(i > 0 && !Rules.canStack(pileCards[i], pileCards[i - 1])) {
+						throw new IllegalArgumentException("visible cards are not a run");
+					}
+				}
+				tableau[t] = new TableauPile(pileCards, visible);
+			}
+			Card.Suit[] suits = Card.Suit.values();
+			Foundation[] foundations = new Foundation[SUIT_COUNT];
+			for(int f = 0; f < SUIT_COUNT; f++) {
+				foundations[f] = new Foundation(suits[f]);
+				//only the sizes are stored, so the cards go on in order, and Card.of rejects a size past the king
+				for(int value = Card.SMALLEST_VALUE; value <= size(FOUNDATION_SIZES + f); value++) {
+					Card card = Card.of(value, suits[f]);
+					if(seen[card.ordinal]) {
+						throw new IllegalArgumentException("duplicate card");
+					}
+					foundations[f].addCard(card);
+				}
+			}
+			return new SolitaireModel(seed, stock, waste, tableau, foundations);
+		} catch(IllegalArgumentException | IndexOutOfBoundsException e) {
+			throw new IllegalStateException("corrupt packed state", e);
+		}
+	}
+	
+	//the count stored in the byte at the given index, which is never negative
+	private int size(int index) {
+		return Byte.toUnsignedInt(data[index]);
+	}
+	
+	//the card stored as the given byte, which must not have been read already
+	private static Card readCard(byte b, boolean[] seen) {
+		Card card = byteToCard(b);
+		if(seen[card.ordinal]) {
+			throw new IllegalArgumentException("duplicate card");
+		}
+		seen[card.ordinal] = true;
+		return card;
+	}
+	
+	/**
+	 * copies the packed bytes
+	 * 
+	 * @return a new array with the PACKED_SIZE bytes of this state
+	 */
+	public byte[] toByteArray() {
+		return data.clone();
+	}
+	
+	/**
+	 * copies the packed bytes into the given array
+	 * 
+	 * @param dest The array to write to
+	 * @param offset Where in the array to start writing the PACKED_SIZE bytes
+	 * @throws IndexOutOfBoundsException if the array does not have PACKED_SIZE bytes after the offset
+	 */
+	public void writeTo(byte[] dest, int offset) {
+		System.arraycopy(data, 0, dest, offset, PACKED_SIZE);
+	}
+	
+	//the byte stored for a card
+	static byte cardToByte(Card card) {
+		return (byte) card.ordinal;
+	}
+	
+	//the card stored as the given byte
+	static Card byteToCard(byte b) {
+		return Card.ofOrdinal(b);
+	}
+	
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof PackedSolitaireState && Arrays.equals(data, ((PackedSolitaireState) other).data);
+	}
+	
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(data);
+	}
+}
@@ -1,24 +1,42 @@
 package gameplay;
 
+import java.util.Arrays;
 import java.util.Scanner;
 
 import setup.Card;
+import setup.Variant;
 
 /**
  * Solitaire can be used to control/view a text-based interface of the game of solitaire
+ * 
+ * Run on its own it offers no hints; launcher.SolitaireLauncher runs it with the solver's hints.
  * @author Yael Goldin
  */
 public class Solitaire {
 
 	public static void main(String[] args) {
+		play(null);
+	}
+	
+	/**
+	 * plays games on the console until the player does not want to play again
+	 * 
+	 * @param hints Where the hints come from, or null to leave hints out of the menu
+	 */
+	public static void play(HintSource hints) {
 		Scanner input = new Scanner(System.in);
 		do {
-			SolitaireModel model = new SolitaireModel();
+			SolitaireModel model = new SolitaireModel(getVariant(input));
+			TextRenderer renderer = new TextRenderer(model);
 			while(!model.gameOver()) {
 				System.out.println("*****");
-				System.out.println(model);
+				System.out.println(renderer.render());
 				System.out.println("*****");
-				oneMove(model, input);
+				oneMove(model, input, hints);
+				if(!model.gameOver() && model.canAutocomplete()) {
+					System.out.println("Every card is face up, finishing the game");
+					model.autocomplete();
+				}
 				System.out.println();
 			}
 		} while(playAgain(input));
@@ -26,8 +44,8 @@ public class Solitaire {
 	}
 	
 	//performs one move in the game
-	private static void oneMove(SolitaireModel model, Scanner input) {
-		int choice = getMoveChoice(input);
+	private static void oneMove(SolitaireModel model, Scanner input, HintSource hints) {
+		int choice = getMoveChoice(input, hints != null);
 		if(choice == 1) {
 			flipStockCard(model);
 		} else if(choice == 2) {
@@ -38,17 +56,24 @@ public class Solitaire {
 			moveCardsBetweenTableauPiles(model, input);
 		} else if(choice == 5){
 			moveTopTableauCardToFoundation(model, input);
-		} else {
+		} else if(choice == 6) {
 			moveTopFoundationCardToTableau(model, input);
+		} else if(choice == 7) {
+			undoMove(model);
+		} else {
+			showHint(model, hints);
 		}
 	}
 	
-	//flips the stock card onto the waste
+	//flips the stock cards onto the waste
 	private static void flipStockCard(SolitaireModel model) {
 		if(model.stockIsEmpty()) {
 			if (model.wasteIsEmpty()) {
 				System.out.println("Stock and waste are empty");
 				return;
+			} else if(!model.canRecycleWaste()) {
+				System.out.println("No passes through the stock left");
+				return;
 			}
 			model.moveWasteToStock();
 		}
@@ -118,6 +143,27 @@ public class Solitaire {
 		}
 	}
 	
+	//undoes the last move, along with the recycle of the waste if the move was the flip that followed it
+	private static void undoMove(SolitaireModel model) {
+		if(!model.canUndo()) {
+			System.out.println("No moves to undo");
+		} else {
+			int move = model.moveAt(model.movesMade() - 1);
+			model.tryUndoPlayerMove();
+			System.out.println("Undid " + Move.toString(move));
+		}
+	}
+	
+	//suggests a move
+	private static void showHint(SolitaireModel model, HintSource hints) {
+		int hint = hints.hint(model, HintSource.DEFAULT_BUDGET);
+		if(hint == HintSource.NO_HINT) {
+			System.out.println("No moves left");
+		} else {
+			System.out.println("Hint: " + Move.toString(hint));
+		}
+	}
+	
 	//asks the user for a tableau/foundation index
 	private static int getFoundationOrTableau(Scanner input, int max, String message) {
 		int choice = 0;
@@ -129,11 +175,30 @@ public class Solitaire {
 		return choice - 1; //0-based indexing
 	}
 	
-	//returns what kind of movement the client wants to do
-	private static int getMoveChoice(Scanner input) {
-		String[] options = {"Flip the next stock card", "Waste -> Foundation", "Waste -> Tableau",
-				"Move cards between tableau piles", "Tableau -> Foundation", "Foundation -> Tableau"
+	//asks the user which variant to play
+	private static Variant getVariant(Scanner input) {
+		Variant[] variants = Variant.values();
+		int choice = 0;
+		while(choice < 1 || choice > variants.length) {
+			System.out.println("What do you want to play? ");
+			for(int i = 0; i < variants.length; i++) {
+				System.out.println("\t(" + (i+1) + ") " + variants[i]);
+			}
+			choice = input.nextInt();
+			input.nextLine();
+		}
+		return variants[choice - 1];
+	}
+	
+	//returns what kind of movement the client wants to do, offering a hint only if there are hints
+	private static int getMoveChoice(Scanner input, boolean offerHint) {
+		String[] options = {"Flip the next stock cards", "Waste -> Foundation", "Waste -> Tableau",
+				"Move cards between tableau piles", "Tableau -> Foundation", "Foundation -> Tableau",
+				"Undo the last move", "Get a hint"
 		};
+		if(!offerHint) {
+			options = Arrays.copyOf(options, options.length - 1);
+		}
 		printOptions(options);
 		int choice = input.nextInt();
 		input.nextLine();
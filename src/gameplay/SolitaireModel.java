@@ -1,24 +1,110 @@
 package gameplay;
 
+import java.util.Arrays;
+
+import jdk.jfr.EventType;
+
+import metrics.GameEndEvent;
+import metrics.GameStartEvent;
 import setup.*;
 
 /**
- * SolitaireModel can be used to model a game of solitaire
+ * SolitaireModel can be used to model a game of solitaire, in any of the variants in Variant, which is
+ * chosen when the model is created
  * @author Yael Goldin
  */
-public class SolitaireModel {
+public class SolitaireModel implements GameView {
 	private Stock stock;
 	private Waste waste;
 	private TableauPile[] tableau;
 	private Foundation[] foundations;
+	private final long seed;
+	private final boolean dealtFromSeed;
+	private int[] history;
+	private int historySize;
+	private long positionHash;
+	private int foundationCards;
 	
 	public static final int TABLEAU_SIZE = 7;
 	
+	//bits of an undo record above the move itself (see Move)
+	private static final int MOVE_BITS = 0x3FFFF;
+	private static final int REVEALED_CARD_BIT = 1 << 18;
+	private static final int PREVIOUS_VISIBLE_SHIFT = 19;
+	private static final int INITIAL_HISTORY_CAPACITY = 64;
+	//only looked up when metrics are enabled, so the events are never allocated otherwise
+	private static final EventType GAME_START =
+			GameMetrics.ENABLED ? EventType.getEventType(GameStartEvent.class) : null;
+	private static final EventType GAME_END =
+			GameMetrics.ENABLED ? EventType.getEventType(GameEndEvent.class) : null;
+	
 	/**
-	 * initializes the solitaire model
+	 * initializes a draw one solitaire model with a randomly shuffled deck
 	 */
 	public SolitaireModel() {
-		Deck startingDeck = new Deck();
+		this(new Deck(), Variant.DRAW_ONE);
+	}
+	
+	/**
+	 * initializes a draw one solitaire model with a deck shuffled by the given seed
+	 * models created with the same seed always start with the same deal
+	 * 
+	 * @param seed The seed used to shuffle the deck
+	 */
+	public SolitaireModel(long seed) {
+		this(new Deck(seed), Variant.DRAW_ONE);
+	}
+	
+	/**
+	 * initializes a solitaire model of the given variant with a randomly shuffled deck
+	 * 
+	 * @param variant The variant to play
+	 * @throws IllegalArgumentException if the variant is null
+	 */
+	public SolitaireModel(Variant variant) {
+		this(new Deck(), variant);
+	}
+	
+	/**
+	 * initializes a solitaire model of the given variant with a deck shuffled by the given seed
+	 * models created with the same seed always start with the same deal, whatever the variant
+	 * 
+	 * @param seed The seed used to shuffle the deck
+	 * @param variant The variant to play
+	 * @throws IllegalArgumentException if the variant is null
+	 */
+	public SolitaireModel(long seed, Variant variant) {
+		this(new Deck(seed), variant);
+	}
+	
+	/**
+	 * initializes the solitaire model with the given piles
+	 * 
+	 * @param seed The seed of the deal the piles came from
+	 * @param stock The stock pile, which must move its cards to the given waste pile and decides the variant
+	 * @param waste The waste pile
+	 * @param tableau The TABLEAU_SIZE tableau piles
+	 * @param foundations The foundations, in the order of Card.Suit.values()
+	 */
+	SolitaireModel(long seed, Stock stock, Waste waste, TableauPile[] tableau, Foundation[] foundations) {
+		this.seed = seed;
+		dealtFromSeed = false;
+		this.stock = stock;
+		this.waste = waste;
+		this.tableau = tableau;
+		this.foundations = foundations;
+		history = new int[INITIAL_HISTORY_CAPACITY];
+		positionHash = computePositionHash();
+		foundationCards = countFoundationCards();
+	}
+	
+	//deals the given deck into the tableau and stock
+	private SolitaireModel(Deck startingDeck, Variant variant) {
+		if(variant == null) {
+			throw new IllegalArgumentException("null variant");
+		}
+		seed = startingDeck.seed;
+		dealtFromSeed = true;
 		
 		tableau = new TableauPile[TABLEAU_SIZE];
 		for(int i = 0; i < TABLEAU_SIZE; i++) {
@@ -26,13 +112,51 @@ public class SolitaireModel {
 		}
 		
 		waste = new Waste();
-		stock = new Stock(startingDeck, waste);
+		stock = Stock.of(variant, startingDeck, waste);
 		
 		Card.Suit[] suits = Card.Suit.values();
 		foundations = new Foundation[suits.length];
 		for(int i = 0; i < suits.length; i++) {
 			foundations[i] = new Foundation(suits[i]);
 		}
+		history = new int[INITIAL_HISTORY_CAPACITY];
+		positionHash = computePositionHash();
+		foundationCards = countFoundationCards();
+		if(GameMetrics.ENABLED && GAME_START.isEnabled()) {
+			GameStartEvent event = new GameStartEvent();
+			if(event.shouldCommit()) {
+				event.seed = seed;
+				event.commit();
+			}
+		}
+	}
+	
+	/**
+	 * finds the seed that was used to shuffle the deck for this game
+	 * 
+	 * @return the seed of the deal, or 0 if the model was restored from a PackedSolitaireState
+	 */
+	public long getSeed() {
+		return seed;
+	}
+	
+	/**
+	 * checks if this game was dealt from its seed, so that dealing the seed again and making the moves
+	 * in its history gives the same game
+	 * 
+	 * @return true if the model was dealt from its seed, false if it was restored from a PackedSolitaireState
+	 */
+	public boolean isDealtFromSeed() {
+		return dealtFromSeed;
+	}
+	
+	/**
+	 * finds the variant being played
+	 * 
+	 * @return the variant
+	 */
+	public Variant variant() {
+		return stock.variant();
 	}
 	
 	/**
@@ -40,28 +164,46 @@ public class SolitaireModel {
 	 * 
 	 * @throws IllegalStateException if the game is over
 	 * @throws IllegalStateException if the stock isn't empty or the waste is empty
+	 * @throws IllegalStateException if the variant allows no more passes through the stock
 	 */
 	public void moveWasteToStock() {
-		exceptionIfGameIsOver();
-		if(!stockIsEmpty()) {
-			throw new IllegalStateException("stock is not empty");
+		long start = GameMetrics.start();
+		try {
+			exceptionIfGameIsOver();
+			if(!stockIsEmpty()) {
+				throw new IllegalStateException("stock is not empty");
+			}
+			checkEmptyWaste();
+			if(!stock.canRecycle()) {
+				throw new IllegalStateException("no passes through the stock left");
+			}
+			applyMove(Move.of(Move.WASTE_TO_STOCK, 0, 0, waste.size()));
+		} catch(RuntimeException e) {
+			GameMetrics.rejected(GameMetrics.MOVE_WASTE_TO_STOCK);
+			throw e;
 		}
-		checkEmptyWaste();
-		stock.moveCardsFromWaste();
+		GameMetrics.finished(GameMetrics.MOVE_WASTE_TO_STOCK, start);
 	}
 	
 	/**
-	 * moves the top card from the stock pile onto the waste pile
+	 * turns over the top cardsToDraw cards of the stock pile onto the waste pile
 	 * 
 	 * @throws IllegalStateException if the game is over
 	 * @throws IllegalStateException if the stock is empty
 	 */
 	public void moveTopStockCardToWaste() {
-		exceptionIfGameIsOver();
-		if(stockIsEmpty()) {
-			throw new IllegalStateException("stock is empty");
+		long start = GameMetrics.start();
+		try {
+			exceptionIfGameIsOver();
+			if(stockIsEmpty()) {
+				throw new IllegalStateException("stock is empty");
+			}
+			applyMove(Move.of(Move.STOCK_TO_WASTE, 0, 0, stock.nextDrawSize()));
+		} catch(RuntimeException e) {
+			GameMetrics.rejected(GameMetrics.MOVE_TOP_STOCK_CARD_TO_WASTE);
+			throw e;
 		}
-		stock.removeTopCard();
+		GameMetrics.finished(GameMetrics.MOVE_TOP_STOCK_CARD_TO_WASTE, start);
 	}
 	
 	/**
@@ -71,12 +213,18 @@ public class SolitaireModel {
 	 * @throws IllegalArgumentException if the top card cannot be moved to the foundation
 	 */
 	public void moveTopWasteCardToFoundation() {
-		if(!canMoveTopWasteCardToFoundation()) {
-			throw new IllegalArgumentException("cannot move top waste card to foundation");
+		long start = GameMetrics.start();
+		try {
+			if(!canMoveTopWasteCardToFoundation()) {
+				throw new IllegalArgumentException("cannot move top waste card to foundation");
+			}
+			int foundationIndex = foundationForCardSuit(waste.peekAtTopCard());
+			applyMove(Move.of(Move.WASTE_TO_FOUNDATION, 0, foundationIndex, 1));
+		} catch(RuntimeException e) {
+			GameMetrics.rejected(GameMetrics.MOVE_TOP_WASTE_CARD_TO_FOUNDATION);
+			throw e;
 		}
-		Card topCard = waste.removeTopCard();
-		int foundationIndex = foundationForCardSuit(topCard);
-		foundations[foundationIndex].addCard(topCard);		
+		GameMetrics.finished(GameMetrics.MOVE_TOP_WASTE_CARD_TO_FOUNDATION, start);
 	}
 	
 	/**
@@ -88,10 +236,37 @@ public class SolitaireModel {
 	 * @throws IllegalArgumentException if the top card cannot be moved to the tableau
 	 */
 	public void moveTopWasteCardToTableau(int tableauIndex) {
-		if(!canMoveTopWasteCardToTableau(tableauIndex)) {
-			throw new IllegalArgumentException("cannot move top waste card to tableau pile");
+		long start = GameMetrics.start();
+		try {
+			if(!canMoveTopWasteCardToTableau(tableauIndex)) {
+				throw new IllegalArgumentException("cannot move top waste card to tableau pile");
+			}
+			applyMove(Move.of(Move.WASTE_TO_TABLEAU, 0, tableauIndex, 1));
+		} catch(RuntimeException e) {
+			GameMetrics.rejected(GameMetrics.MOVE_TOP_WASTE_CARD_TO_TABLEAU);
+			throw e;
 		}
-		tableau[tableauIndex].addVisibleCard(waste.removeTopCard());		
+		GameMetrics.finished(GameMetrics.MOVE_TOP_WASTE_CARD_TO_TABLEAU, start);
+	}
+	
+	/**
+	 * finds how many cards the next move from the stock to the waste turns over, which is the count of
+	 * that move (see Move)
+	 * 
+	 * @return the number of cards, which is 0 if the stock is empty
+	 */
+	public int cardsToDraw() {
+		return stock.nextDrawSize();
+	}
+	
+	/**
+	 * checks if the waste can be moved back to the stock, which needs an empty stock, cards in the waste
+	 * and, if the variant limits them, a pass through the stock left
+	 * 
+	 * @return true if it can, false otherwise
+	 */
+	public boolean canRecycleWaste() {
+		return stock.canRecycle();
 	}
 	
 	/* ************************check if top waste card can be moved***************************** */
@@ -127,12 +302,7 @@ public class SolitaireModel {
 	
 	//returns the index representing the foundation matching the card's suit
 	private int foundationForCardSuit(Card card) {
-		for(int i = 0; i < foundations.length; i++) {
-			if(card.suit == foundations[i].foundationSuit) {
-				return i;
-			}
-		}
-		throw new IllegalStateException("non-existent suit");
+		return Rules.foundationIndex(card);
 	}
 	
 	/**
@@ -144,12 +314,17 @@ public class SolitaireModel {
 	 * @throws IllegalArgumentException if it is not legal to perform that move
 	 */
 	public void moveCardFromFoundationToTableau(int foundationIndex, int tableauIndex) {
-		if(!canMoveCardFromFoundationToTableau(foundationIndex, tableauIndex)) {
-			throw new IllegalStateException("cannot move card from foundation to tableau");
+		long start = GameMetrics.start();
+		try {
+			if(!canMoveCardFromFoundationToTableau(foundationIndex, tableauIndex)) {
+				throw new IllegalStateException("cannot move card from foundation to tableau");
+			}
+			applyMove(Move.of(Move.FOUNDATION_TO_TABLEAU, foundationIndex, tableauIndex, 1));
+		} catch(RuntimeException e) {
+			GameMetrics.rejected(GameMetrics.MOVE_CARD_FROM_FOUNDATION_TO_TABLEAU);
+			throw e;
 		}
-		Foundation foundation = foundations[foundationIndex];
-		TableauPile pile = tableau[tableauIndex];
-		foundation.moveTopCard(pile);
+		GameMetrics.finished(GameMetrics.MOVE_CARD_FROM_FOUNDATION_TO_TABLEAU, start);
 	}
 	
 	/**
@@ -182,19 +357,38 @@ public class SolitaireModel {
 	 * @throws IllegalArgumentException if given an invalid start or end tableau index
 	 */
 	public boolean moveCardsWithinTableau(int startTableauIndex, int endTableauIndex) {
+		long start = GameMetrics.start();
+		int cardsToMove;
+		try {
+			cardsToMove = numCardsMovableWithinTableau(startTableauIndex, endTableauIndex);
+		} catch(RuntimeException e) {
+			GameMetrics.rejected(GameMetrics.MOVE_CARDS_WITHIN_TABLEAU);
+			throw e;
+		}
+		if(cardsToMove == 0) {
+			GameMetrics.rejected(GameMetrics.MOVE_CARDS_WITHIN_TABLEAU);
+			return false;
+		}
+		applyMove(Move.of(Move.TABLEAU_TO_TABLEAU, startTableauIndex, endTableauIndex, cardsToMove));
+		GameMetrics.finished(GameMetrics.MOVE_CARDS_WITHIN_TABLEAU, start);
+		return true;
+	}
+	
+	/**
+	 * finds how many cards moveCardsWithinTableau would move between the given tableau piles
+	 * 
+	 * @param startTableauIndex The tableau pile to start at
+	 * @param endTableauIndex The tableau pile to move to
+	 * @return the number of cards, or 0 if the move is not legal
+	 * @throws IllegalArgumentException if given an invalid start or end tableau index
+	 */
+	public int numCardsMovableWithinTableau(int startTableauIndex, int endTableauIndex) {
 		checkInvalidTableauIndex(startTableauIndex);
 		checkInvalidTableauIndex(endTableauIndex);
 		if(startTableauIndex == endTableauIndex) {
-			return false;
-		}
-		TableauPile start = tableau[startTableauIndex];
-		TableauPile end = tableau[endTableauIndex];
-		for (int cardsToMove = 1; cardsToMove <= start.numVisibleCards(); cardsToMove++) {
-			if (end.addStackOfCards(start, cardsToMove)) {
-				return true;
-			}
+			return 0;
 		}
-		return false;
+		return tableau[startTableauIndex].numCardsMovableTo(tableau[endTableauIndex]);
 	}
 	
 	/**
@@ -204,12 +398,18 @@ public class SolitaireModel {
 	 * @throws IllegalArgumentException if the move is illegal
 	 */
 	public void moveTableauCardToFoundation(int tableauIndex) {
-		if(!canMoveTableauCardToFoundation(tableauIndex)) {
-			throw new IllegalArgumentException("can't move card to foundation");
+		long start = GameMetrics.start();
+		try {
+			if(!canMoveTableauCardToFoundation(tableauIndex)) {
+				throw new IllegalArgumentException("can't move card to foundation");
+			}
+			int foundationIndex = foundationForCardSuit(tableau[tableauIndex].peekAtTopCard());
+			applyMove(Move.of(Move.TABLEAU_TO_FOUNDATION, tableauIndex, foundationIndex, 1));
+		} catch(RuntimeException e) {
+			GameMetrics.rejected(GameMetrics.MOVE_TABLEAU_CARD_TO_FOUNDATION);
+			throw e;
 		}
-		TableauPile pile = tableau[tableauIndex];
-		int foundationIndex = foundationForCardSuit(pile.peekAtTopCard());
-		pile.moveTopCard(foundations[foundationIndex]);
+		GameMetrics.finished(GameMetrics.MOVE_TABLEAU_CARD_TO_FOUNDATION, start);
 	}
 	
 	/**
@@ -229,6 +429,716 @@ public class SolitaireModel {
 		return pile.canMoveTopCardToFoundation(foundations[foundationIndex]);		
 	}
 	
+	/* ************************find every legal move******************************************** */
+	
+	/**
+	 * fills the buffer with every legal move in the current position, replacing what it held before
+	 * this never allocates or throws, so it can be called in the innermost loop of a search
+	 * 
+	 * @param buffer The buffer to fill with encoded moves (see Move)
+	 * @return the number of legal moves, which is 0 if the game is over
+	 */
+	public int generateMoves(MoveBuffer buffer) {
+		buffer.clear();
+		if(gameOver()) {
+			return 0;
+		}
+		if(!stock.isEmpty()) {
+			buffer.add(Move.of(Move.STOCK_TO_WASTE, 0, 0, stock.nextDrawSize()));
+		} else if(stock.canRecycle()) {
+			buffer.add(Move.of(Move.WASTE_TO_STOCK, 0, 0, waste.size()));
+		}
+		if(!waste.isEmpty()) {
+			Card topCard = waste.peekAtTopCard();
+			int foundationIndex = foundationForCardSuit(topCard);
+			if(foundations[foundationIndex].canAddCard(topCard)) {
+				buffer.add(Move.of(Move.WASTE_TO_FOUNDATION, 0, foundationIndex, 1));
+			}
+			for(int t = 0; t < tableau.length; t++) {
+				if(tableau[t].canAddToPile(topCard)) {
+					buffer.add(Move.of(Move.WASTE_TO_TABLEAU, 0, t, 1));
+				}
+			}
+		}
+		for(int start = 0; start < tableau.length; start++) {
+			TableauPile pile = tableau[start];
+			if(pile.isEmpty()) {
+				continue;
+			}
+			int foundationIndex = foundationForCardSuit(pile.peekAtTopCard());
+			if(pile.canMoveTopCardToFoundation(foundations[foundationIndex])) {
+				buffer.add(Move.of(Move.TABLEAU_TO_FOUNDATION, start, foundationIndex, 1));
+			}
+			for(int end = 0; end < tableau.length; end++) {
+				if(end != start) {
+					int cardsToMove = pile.numCardsMovableTo(tableau[end]);
+					if(cardsToMove > 0) {
+						buffer.add(Move.of(Move.TABLEAU_TO_TABLEAU, start, end, cardsToMove));
+					}
+				}
+			}
+		}
+		for(int f = 0; f < foundations.length; f++) {
+			if(!foundations[f].isEmpty()) {
+				for(int t = 0; t < tableau.length; t++) {
+					if(foundations[f].canMoveTopCard(tableau[t])) {
+						buffer.add(Move.of(Move.FOUNDATION_TO_TABLEAU, f, t, 1));
+					}
+				}
+			}
+		}
+		return buffer.size();
+	}
+	
+	/* ************************make and unmake moves******************************************** */
+	
+	/**
+	 * performs the given move and records it so it can be undone
+	 * 
+	 * @param move The encoded move (see Move), which should be one generated by generateMoves for
+	 * the current position
+	 * @throws IllegalArgumentException if the move is not legal in the current position, names a pile
+	 * 		that does not exist, or moves the wrong number of cards
+	 * @throws IllegalStateException if the game is over or the move's source pile is empty
+	 */
+	public void apply(int move) {
+		long start = GameMetrics.start();
+		try {
+			int status = checkMove(move);
+			if(status == MoveStatus.GAME_OVER || status == MoveStatus.EMPTY_PILE) {
+				throw new IllegalStateException(MoveStatus.toString(status));
+			} else if(status != MoveStatus.OK) {
+				throw new IllegalArgumentException(MoveStatus.toString(status));
+			}
+			applyMove(move);
+		} catch(RuntimeException e) {
+			GameMetrics.rejected(GameMetrics.APPLY);
+			throw e;
+		}
+		GameMetrics.finished(GameMetrics.APPLY, start);
+	}
+	
+	//makes and records the move, without timing it
+	private void applyMove(int move) {
+		int type = Move.type(move);
+		int source = Move.source(move);
+		int dest = Move.dest(move);
+		if(type == Move.STOCK_TO_WASTE) {
+			move = Move.of(Move.STOCK_TO_WASTE, 0, 0, stock.nextDrawSize());
+		} else if(type == Move.WASTE_TO_STOCK) {
+			move = Move.of(Move.WASTE_TO_STOCK, 0, 0, waste.size());
+		}
+		int from = sourceLocation(move);
+		int to = destLocation(move);
+		int count = Move.count(move);
+		if(count < 1 || count > pileSize(from)) {
+			throw new IllegalArgumentException("invalid number of cards to move");
+		}
+		long oldKeys = topCardKeys(from, count) ^ visibleKeys(from) ^ visibleKeys(to);
+		int previousVisible = 0;
+		if(type == Move.STOCK_TO_WASTE) {
+			stock.drawCards();
+		} else if(type == Move.WASTE_TO_STOCK) {
+			long oldPassKey = passKey();
+			stock.moveCardsFromWaste();
+			positionHash ^= oldPassKey ^ passKey();
+		} else if(type == Move.WASTE_TO_FOUNDATION) {
+			waste.moveTopCard(foundations[dest]);
+			foundationCards++;
+		} else if(type == Move.WASTE_TO_TABLEAU) {
+			waste.moveTopCard(tableau[dest]);
+		} else if(type == Move.TABLEAU_TO_FOUNDATION) {
+			previousVisible = tableau[source].numVisibleCards();
+			tableau[source].moveTopCard(foundations[dest]);
+			foundationCards++;
+		} else if(type == Move.TABLEAU_TO_TABLEAU) {
+			previousVisible = tableau[source].numVisibleCards();
+			if(!tableau[dest].addStackOfCards(tableau[source], Move.count(move))) {
+				throw new IllegalArgumentException("cannot move cards between tableau piles");
+			}
+		} else if(type == Move.FOUNDATION_TO_TABLEAU) {
+			foundations[source].moveTopCard(tableau[dest]);
+			foundationCards--;
+		} else {
+			throw new IllegalArgumentException("unknown move type");
+		}
+		positionHash ^= oldKeys ^ topCardKeys(to, count) ^ visibleKeys(from) ^ visibleKeys(to);
+		int record = move & MOVE_BITS | previousVisible << PREVIOUS_VISIBLE_SHIFT;
+		if(previousVisible == Move.count(move) && !tableau[source].isEmpty()) {
+			record |= REVEALED_CARD_BIT;
+		}
+		if(historySize == history.length) {
+			history = Arrays.copyOf(history, historySize * 2);
+		}
+		history[historySize++] = record;
+		GameMetrics.moveMade(type);
+		if(GameMetrics.ENABLED && to >= Zobrist.FIRST_FOUNDATION && gameOver() && GAME_END.isEnabled()) {
+			GameEndEvent event = new GameEndEvent();
+			if(event.shouldCommit()) {
+				event.seed = seed;
+				event.moves = historySize;
+				event.commit();
+			}
+		}
+	}
+	
+	/**
+	 * undoes the most recent move that has not been undone yet, putting back any tableau card that
+	 * the move turned face up
+	 * 
+	 * @return the encoded move that was undone
+	 * @throws IllegalStateException if no moves have been made
+	 */
+	public int undo() {
+		long start = GameMetrics.start();
+		if(historySize == 0) {
+			GameMetrics.rejected(GameMetrics.UNDO);
+			throw new IllegalStateException("no moves to undo");
+		}
+		int move = undoMove();
+		GameMetrics.finished(GameMetrics.UNDO, start);
+		return move;
+	}
+	
+	//takes back the most recent move, which must exist, without timing it
+	private int undoMove() {
+		int record = history[--historySize];
+		int move = record & MOVE_BITS;
+		int type = Move.type(move);
+		int source = Move.source(move);
+		int dest = Move.dest(move);
+		int previousVisible = record >>> PREVIOUS_VISIBLE_SHIFT;
+		int from = destLocation(move);
+		int to = sourceLocation(move);
+		int count = Move.count(move);
+		long oldKeys = topCardKeys(from, count) ^ visibleKeys(from) ^ visibleKeys(to);
+		if(type == Move.STOCK_TO_WASTE) {
+			stock.returnDrawnCards(count);
+		} else if(type == Move.WASTE_TO_STOCK) {
+			long oldPassKey = passKey();
+			stock.returnCardsToWaste();
+			positionHash ^= oldPassKey ^ passKey();
+		} else if(type == Move.WASTE_TO_FOUNDATION) {
+			waste.addCard(foundations[dest].removeTopCard());
+			foundationCards--;
+		} else if(type == Move.WASTE_TO_TABLEAU) {
+			waste.addCard(tableau[dest].removeTopVisibleCard());
+		} else if(type == Move.TABLEAU_TO_FOUNDATION) {
+			tableau[source].restoreTopCard(foundations[dest].removeTopCard(), previousVisible);
+			foundationCards--;
+		} else if(type == Move.TABLEAU_TO_TABLEAU) {
+			tableau[source].returnStackOfCards(tableau[dest], Move.count(move), previousVisible);
+		} else {
+			foundations[source].addCard(tableau[dest].removeTopVisibleCard());
+			foundationCards++;
+		}
+		positionHash ^= oldKeys ^ topCardKeys(to, count) ^ visibleKeys(from) ^ visibleKeys(to);
+		GameMetrics.moveUndone();
+		return move;
+	}
+	
+	/**
+	 * checks if there is a move to undo
+	 * 
+	 * @return true if at least one move has been made and not undone, false otherwise
+	 */
+	public boolean canUndo() {
+		return historySize > 0;
+	}
+	
+	/**
+	 * finds how many moves have been made and not undone
+	 * 
+	 * @return the number of moves
+	 */
+	public int movesMade() {
+		return historySize;
+	}
+	
+	/**
+	 * finds one of the moves made so far, so the game can be recorded and replayed
+	 * 
+	 * @param index Which move to find, where 0 is the first move made
+	 * @return the encoded move (see Move)
+	 * @throws IllegalArgumentException if the index is not in the range [0, movesMade())
+	 */
+	public int moveAt(int index) {
+		if(index < 0 || index >= historySize) {
+			throw new IllegalArgumentException("invalid move index");
+		}
+		return history[index] & MOVE_BITS;
+	}
+	
+	/**
+	 * checks if the most recent move turned a hidden tableau card face up
+	 * 
+	 * @return true if it did, false if it didn't or if no moves have been made
+	 */
+	public boolean lastMoveRevealedCard() {
+		return historySize > 0 && (history[historySize - 1] & REVEALED_CARD_BIT) != 0;
+	}
+	
+	/* ************************status-code moves that never throw******************************* */
+	
+	/**
+	 * checks if the given move can be made in the current position, without throwing
+	 * 
+	 * @param move The encoded move (see Move)
+	 * @return MoveStatus.OK if apply would make the move, otherwise the MoveStatus saying why not
+	 */
+	public int checkMove(int move) {
+		if(gameOver()) {
+			return MoveStatus.GAME_OVER;
+		}
+		int type = Move.type(move);
+		int source = Move.source(move);
+		int dest = Move.dest(move);
+		int count = Move.count(move);
+		if(type == Move.STOCK_TO_WASTE) {
+			if(stock.isEmpty()) {
+				return MoveStatus.EMPTY_PILE;
+			}
+			return count == stock.nextDrawSize() ? MoveStatus.OK : MoveStatus.ILLEGAL_MOVE;
+		} else if(type == Move.WASTE_TO_STOCK) {
+			if(waste.isEmpty()) {
+				return MoveStatus.EMPTY_PILE;
+			}
+			return stock.canRecycle() ? MoveStatus.OK : MoveStatus.ILLEGAL_MOVE;
+		} else if(type == Move.WASTE_TO_FOUNDATION || type == Move.WASTE_TO_TABLEAU) {
+			boolean toFoundation = type == Move.WASTE_TO_FOUNDATION;
+			if(dest >= (toFoundation ? foundations.length : tableau.length)) {
+				return MoveStatus.INVALID_PILE;
+			} else if(waste.isEmpty()) {
+				return MoveStatus.EMPTY_PILE;
+			}
+			Card topCard = waste.peekAtTopCard();
+			boolean legal = toFoundation ? foundations[dest].canAddCard(topCard)
+					: tableau[dest].canAddToPile(topCard);
+			return legal && count == 1 ? MoveStatus.OK : MoveStatus.ILLEGAL_MOVE;
+		} else if(type == Move.TABLEAU_TO_FOUNDATION) {
+			if(source >= tableau.length || dest >= foundations.length) {
+				return MoveStatus.INVALID_PILE;
+			} else if(tableau[source].isEmpty()) {
+				return MoveStatus.EMPTY_PILE;
+			}
+			boolean legal = foundations[dest].canAddCard(tableau[source].peekAtTopCard());
+			return legal && count == 1 ? MoveStatus.OK : MoveStatus.ILLEGAL_MOVE;
+		} else if(type == Move.TABLEAU_TO_TABLEAU) {
+			if(source >= tableau.length || dest >= tableau.length) {
+				return MoveStatus.INVALID_PILE;
+			} else if(tableau[source].isEmpty()) {
+				return MoveStatus.EMPTY_PILE;
+			}
+			boolean legal = source != dest && count > 0 && count == tableau[source].numCardsMovableTo(tableau[dest]);
+			return legal ? MoveStatus.OK : MoveStatus.ILLEGAL_MOVE;
+		} else if(type == Move.FOUNDATION_TO_TABLEAU) {
+			if(source >= foundations.length || dest >= tableau.length) {
+				return MoveStatus.INVALID_PILE;
+			} else if(foundations[source].isEmpty()) {
+				return MoveStatus.EMPTY_PILE;
+			}
+			Foundation foundation = foundations[source];
+			boolean legal = tableau[dest].canAddToPile(Card.of(foundation.size(), foundation.foundationSuit));
+			return legal && count == 1 ? MoveStatus.OK : MoveStatus.ILLEGAL_MOVE;
+		}
+		return MoveStatus.ILLEGAL_MOVE;
+	}
+	
+	/**
+	 * makes the given move if it can be made, without throwing
+	 * 
+	 * @param move The encoded move (see Move)
+	 * @return MoveStatus.OK if the move was made, otherwise the MoveStatus saying why it wasn't
+	 */
+	public int tryApply(int move) {
+		long start = GameMetrics.start();
+		return GameMetrics.tried(GameMetrics.TRY_APPLY, start, tryApplyMove(move));
+	}
+	
+	//makes the move if it can be made, without timing it
+	private int tryApplyMove(int move) {
+		int status = checkMove(move);
+		if(status == MoveStatus.OK) {
+			applyMove(move);
+		}
+		return status;
+	}
+	
+	/**
+	 * moves all of the cards from the waste pile into the stock pile, without throwing
+	 * 
+	 * @return MoveStatus.OK if the move was made, otherwise the MoveStatus saying why it wasn't
+	 */
+	public int tryMoveWasteToStock() {
+		long start = GameMetrics.start();
+		int status = tryApplyMove(Move.of(Move.WASTE_TO_STOCK, 0, 0, waste.size()));
+		return GameMetrics.tried(GameMetrics.TRY_MOVE_WASTE_TO_STOCK, start, status);
+	}
+	
+	/**
+	 * turns over the top cardsToDraw cards of the stock pile onto the waste pile, without throwing
+	 * 
+	 * @return MoveStatus.OK if the move was made, otherwise the MoveStatus saying why it wasn't
+	 */
+	public int tryMoveTopStockCardToWaste() {
+		long start = GameMetrics.start();
+		int status = tryApplyMove(Move.of(Move.STOCK_TO_WASTE, 0, 0, stock.nextDrawSize()));
+		return GameMetrics.tried(GameMetrics.TRY_MOVE_TOP_STOCK_CARD_TO_WASTE, start, status);
+	}
+	
+	/**
+	 * moves the top card from the waste pile to the matching foundation, without throwing
+	 * 
+	 * @return MoveStatus.OK if the move was made, otherwise the MoveStatus saying why it wasn't
+	 */
+	public int tryMoveTopWasteCardToFoundation() {
+		long start = GameMetrics.start();
+		int status;
+		if(waste.isEmpty()) {
+			status = gameOver() ? MoveStatus.GAME_OVER : MoveStatus.EMPTY_PILE;
+		} else {
+			int foundationIndex = foundationForCardSuit(waste.peekAtTopCard());
+			status = tryApplyMove(Move.of(Move.WASTE_TO_FOUNDATION, 0, foundationIndex, 1));
+		}
+		return GameMetrics.tried(GameMetrics.TRY_MOVE_TOP_WASTE_CARD_TO_FOUNDATION, start, status);
+	}
+	
+	/**
+	 * moves the top card from the waste pile to the given tableau pile, without throwing
+	 * 
+	 * @param tableauIndex Which tableau pile to move the card to
+	 * @return MoveStatus.OK if the move was made, otherwise the MoveStatus saying why it wasn't
+	 */
+	public int tryMoveTopWasteCardToTableau(int tableauIndex) {
+		long start = GameMetrics.start();
+		int status;
+		if(tableauIndex < 0 || tableauIndex >= tableau.length) {
+			status = MoveStatus.INVALID_PILE;
+		} else {
+			status = tryApplyMove(Move.of(Move.WASTE_TO_TABLEAU, 0, tableauIndex, 1));
+		}
+		return GameMetrics.tried(GameMetrics.TRY_MOVE_TOP_WASTE_CARD_TO_TABLEAU, start, status);
+	}
+	
+	/**
+	 * moves the top card from the given foundation to the given tableau pile, without throwing
+	 * 
+	 * @param foundationIndex The foundation pile to move from
+	 * @param tableauIndex The tableau pile to move to
+	 * @return MoveStatus.OK if the move was made, otherwise the MoveStatus saying why it wasn't
+	 */
+	public int tryMoveCardFromFoundationToTableau(int foundationIndex, int tableauIndex) {
+		long start = GameMetrics.start();
+		int status;
+		if(foundationIndex < 0 || foundationIndex >= foundations.length || tableauIndex < 0
+				|| tableauIndex >= tableau.length) {
+			status = MoveStatus.INVALID_PILE;
+		} else {
+			status = tryApplyMove(Move.of(Move.FOUNDATION_TO_TABLEAU, foundationIndex, tableauIndex, 1));
+		}
+		return GameMetrics.tried(GameMetrics.TRY_MOVE_CARD_FROM_FOUNDATION_TO_TABLEAU, start, status);
+	}
+	
+	/**
+	 * moves as many cards as it takes from one tableau pile onto the other, without throwing
+	 * 
+	 * @param startTableauIndex The tableau pile to start at
+	 * @param endTableauIndex The tableau pile to move to
+	 * @return MoveStatus.OK if the move was made, otherwise the MoveStatus saying why it wasn't
+	 */
+	public int tryMoveCardsWithinTableau(int startTableauIndex, int endTableauIndex) {
+		long start = GameMetrics.start();
+		int status;
+		if(startTableauIndex < 0 || startTableauIndex >= tableau.length || endTableauIndex < 0
+				|| endTableauIndex >= tableau.length) {
+			status = MoveStatus.INVALID_PILE;
+		} else {
+			int cardsToMove = tableau[startTableauIndex].numCardsMovableTo(tableau[endTableauIndex]);
+			status = tryApplyMove(Move.of(Move.TABLEAU_TO_TABLEAU, startTableauIndex, endTableauIndex, cardsToMove));
+		}
+		return GameMetrics.tried(GameMetrics.TRY_MOVE_CARDS_WITHIN_TABLEAU, start, status);
+	}
+	
+	/**
+	 * moves the top card from the given tableau pile to the foundation matching the card's suit,
+	 * without throwing
+	 * 
+	 * @param tableauIndex The tableau pile to move from
+	 * @return MoveStatus.OK if the move was made, otherwise the MoveStatus saying why it wasn't
+	 */
+	public int tryMoveTableauCardToFoundation(int tableauIndex) {
+		long start = GameMetrics.start();
+		int status;
+		if(tableauIndex < 0 || tableauIndex >= tableau.length) {
+			status = MoveStatus.INVALID_PILE;
+		} else if(tableau[tableauIndex].isEmpty()) {
+			status = gameOver() ? MoveStatus.GAME_OVER : MoveStatus.EMPTY_PILE;
+		} else {
+			int foundationIndex = foundationForCardSuit(tableau[tableauIndex].peekAtTopCard());
+			status = tryApplyMove(Move.of(Move.TABLEAU_TO_FOUNDATION, tableauIndex, foundationIndex, 1));
+		}
+		return GameMetrics.tried(GameMetrics.TRY_MOVE_TABLEAU_CARD_TO_FOUNDATION, start, status);
+	}
+	
+	/**
+	 * undoes the most recent move, without throwing
+	 * 
+	 * @return MoveStatus.OK if a move was undone, or MoveStatus.EMPTY_PILE if there was none to undo
+	 */
+	public int tryUndo() {
+		long start = GameMetrics.start();
+		int status = MoveStatus.EMPTY_PILE;
+		if(historySize > 0) {
+			undoMove();
+			status = MoveStatus.OK;
+		}
+		return GameMetrics.tried(GameMetrics.TRY_UNDO, start, status);
+	}
+	
+	/**
+	 * undoes the most recent move the way a player made it, without throwing
+	 * a stock draw made right after recycling the waste is undone together with the recycle, since the
+	 * player flipped the stock once to make both
+	 * 
+	 * @return MoveStatus.OK if a move was undone, or MoveStatus.EMPTY_PILE if there was none to undo
+	 */
+	public int tryUndoPlayerMove() {
+		boolean drawAfterRecycle = historySize > 1
+				&& Move.type(history[historySize - 1] & MOVE_BITS) == Move.STOCK_TO_WASTE
+				&& Move.type(history[historySize - 2] & MOVE_BITS) == Move.WASTE_TO_STOCK;
+		int status = tryUndo();
+		if(drawAfterRecycle) {
+			status = tryUndo();
+		}
+		return status;
+	}
+	
+	/* ************************safe moves and autocomplete************************************** */
+
+	/**
+	 * checks if a move puts a card on its foundation that no card left in play could ever need to be
+	 * built on, so making it can never lose the game
+	 * a card is safe once both foundations of the other color have every card more than one below it
+	 * 
+	 * @param move The encoded move (see Move)
+	 * @return true if the move is a waste/tableau to foundation move whose card is safe, false otherwise
+	 */
+	public boolean isSafeFoundationMove(int move) {
+		int type = Move.type(move);
+		Card card;
+		if(type == Move.WASTE_TO_FOUNDATION && !waste.isEmpty()) {
+			card = waste.peekAtTopCard();
+		} else if(type == Move.TABLEAU_TO_FOUNDATION && Move.source(move) < tableau.length
+				&& !tableau[Move.source(move)].isEmpty()) {
+			card = tableau[Move.source(move)].peekAtTopCard();
+		} else {
+			return false;
+		}
+		if(card.value <= Card.SMALLEST_VALUE + 1) {
+			return true;
+		}
+		Card.Suit[] suits = Card.Suit.values();
+		for(int f = 0; f < foundations.length; f++) {
+			if(Card.of(Card.SMALLEST_VALUE, suits[f]).isOtherColor(card) && foundations[f].size() < card.value - 1) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * moves every card that can safely go to its foundation (see isSafeFoundationMove) from the top of
+	 * the waste and the tableau piles, until there are none left
+	 * each card is recorded as its own move, so they can be undone one at a time
+	 * 
+	 * @return the number of cards moved
+	 */
+	public int applySafeFoundationMoves() {
+		long start = GameMetrics.start();
+		int moved = 0;
+		boolean progress = true;
+		while(progress) {
+			progress = false;
+			if(!waste.isEmpty()) {
+				int foundationIndex = foundationForCardSuit(waste.peekAtTopCard());
+				int move = Move.of(Move.WASTE_TO_FOUNDATION, 0, foundationIndex, 1);
+				if(foundations[foundationIndex].canAddCard(waste.peekAtTopCard()) && isSafeFoundationMove(move)) {
+					applyMove(move);
+					moved++;
+					progress = true;
+				}
+			}
+			for(int t = 0; t < tableau.length; t++) {
+				while(!tableau[t].isEmpty()) {
+					int foundationIndex = foundationForCardSuit(tableau[t].peekAtTopCard());
+					int move = Move.of(Move.TABLEAU_TO_FOUNDATION, t, foundationIndex, 1);
+					if(!tableau[t].canMoveTopCardToFoundation(foundations[foundationIndex])
+							|| !isSafeFoundationMove(move)) {
+						break;
+					}
+					applyMove(move);
+					moved++;
+					progress = true;
+				}
+			}
+		}
+		GameMetrics.finished(GameMetrics.APPLY_SAFE_FOUNDATION_MOVES, start);
+		return moved;
+	}
+	
+	/**
+	 * checks if the game is won no matter how it is played, because the stock and waste are empty and
+	 * every tableau card is face up
+	 * 
+	 * @return true if autocomplete can finish the game, false otherwise
+	 */
+	public boolean canAutocomplete() {
+		if(!stock.isEmpty() || !waste.isEmpty()) {
+			return false;
+		}
+		for(TableauPile pile : tableau) {
+			if(pile.numHiddenCards() > 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * finishes a game that canAutocomplete says is won, by moving every tableau card to the foundations
+	 * each card is recorded as its own move, so they can be undone one at a time
+	 * 
+	 * @return the number of cards moved
+	 * @throws IllegalStateException if the game cannot be autocompleted
+	 */
+	public int autocomplete() {
+		long start = GameMetrics.start();
+		if(!canAutocomplete()) {
+			GameMetrics.rejected(GameMetrics.AUTOCOMPLETE);
+			throw new IllegalStateException("game cannot be autocompleted");
+		}
+		int moved = 0;
+		while(!gameOver()) {
+			boolean progress = false;
+			for(int t = 0; t < tableau.length; t++) {
+				if(!tableau[t].isEmpty()) {
+					int foundationIndex = foundationForCardSuit(tableau[t].peekAtTopCard());
+					if(tableau[t].canMoveTopCardToFoundation(foundations[foundationIndex])) {
+						applyMove(Move.of(Move.TABLEAU_TO_FOUNDATION, t, foundationIndex, 1));
+						moved++;
+						progress = true;
+					}
+				}
+			}
+			if(!progress) {
+				throw new IllegalStateException("tableau is not in sequence");
+			}
+		}
+		GameMetrics.finished(GameMetrics.AUTOCOMPLETE, start);
+		return moved;
+	}
+	
+	/* ************************position hashing************************************************* */
+	
+	/**
+	 * finds the 64-bit Zobrist hash of the current position, which is kept up to date by every move
+	 * two models in the same position always have the same hash, no matter how they got there
+	 * 
+	 * @return the hash of the position
+	 */
+	public long positionHash() {
+		return positionHash;
+	}
+	
+	//hashes the whole position from scratch
+	private long computePositionHash() {
+		long result = 0;
+		for(int location = Zobrist.STOCK; location < Zobrist.FIRST_FOUNDATION + foundations.length; location++) {
+			result ^= topCardKeys(location, pileSize(location)) ^ visibleKeys(location);
+		}
+		return result ^ passKey();
+	}
+	
+	//the key for the variant and the passes through the stock already made, which only changes when the
+	//waste is moved back to a stock with a limited number of passes
+	private long passKey() {
+		return Zobrist.passKey(stock.variant(), stock.recycles());
+	}
+	
+	//the XOR of the keys of the top cards of the given pile at their current positions
+	private long topCardKeys(int location, int count) {
+		long result = 0;
+		int size = pileSize(location);
+		for(int i = size - count; i < size; i++) {
+			result ^= Zobrist.cardKey(location, i, pileCardAt(location, i));
+		}
+		return result;
+	}
+	
+	//the key for the number of visible cards on the pile, or 0 if it isn't a tableau pile
+	private long visibleKeys(int location) {
+		if(location < Zobrist.FIRST_TABLEAU || location >= Zobrist.FIRST_FOUNDATION) {
+			return 0;
+		}
+		int tableauIndex = location - Zobrist.FIRST_TABLEAU;
+		return Zobrist.visibleKey(tableauIndex, tableau[tableauIndex].numVisibleCards());
+	}
+	
+	//the number of cards in the pile at the given hashing location
+	private int pileSize(int location) {
+		if(location == Zobrist.STOCK) {
+			return stock.size();
+		} else if(location == Zobrist.WASTE) {
+			return waste.size();
+		} else if(location < Zobrist.FIRST_FOUNDATION) {
+			return tableau[location - Zobrist.FIRST_TABLEAU].size();
+		} else {
+			return foundations[location - Zobrist.FIRST_FOUNDATION].size();
+		}
+	}
+	
+	//the card at the given position of the pile at the given hashing location
+	private Card pileCardAt(int location, int index) {
+		if(location == Zobrist.STOCK) {
+			return stock.cardAt(index);
+		} else if(location == Zobrist.WASTE) {
+			return waste.cardAt(index);
+		} else if(location < Zobrist.FIRST_FOUNDATION) {
+			return tableau[location - Zobrist.FIRST_TABLEAU].cardAt(index);
+		} else {
+			Foundation foundation = foundations[location - Zobrist.FIRST_FOUNDATION];
+			return Card.of(index + Card.SMALLEST_VALUE, foundation.foundationSuit);
+		}
+	}
+	
+	//the hashing location the move takes cards from
+	private static int sourceLocation(int move) {
+		int type = Move.type(move);
+		if(type == Move.STOCK_TO_WASTE) {
+			return Zobrist.STOCK;
+		} else if(type == Move.WASTE_TO_STOCK || type == Move.WASTE_TO_FOUNDATION || type == Move.WASTE_TO_TABLEAU) {
+			return Zobrist.WASTE;
+		} else if(type == Move.TABLEAU_TO_FOUNDATION || type == Move.TABLEAU_TO_TABLEAU) {
+			return Zobrist.FIRST_TABLEAU + Move.source(move);
+		} else {
+			return Zobrist.FIRST_FOUNDATION + Move.source(move);
+		}
+	}
+	
+	//the hashing location the move puts cards on
+	private static int destLocation(int move) {
+		int type = Move.type(move);
+		if(type == Move.STOCK_TO_WASTE) {
+			return Zobrist.WASTE;
+		} else if(type == Move.WASTE_TO_STOCK) {
+			return Zobrist.STOCK;
+		} else if(type == Move.WASTE_TO_FOUNDATION || type == Move.TABLEAU_TO_FOUNDATION) {
+			return Zobrist.FIRST_FOUNDATION + Move.dest(move);
+		} else {
+			return Zobrist.FIRST_TABLEAU + Move.dest(move);
+		}
+	}
+	
 	/* ************************check if any pile is empty*************************************** */
 	
 	/**
@@ -254,7 +1164,7 @@ public class SolitaireModel {
 	 * 
 	 * @param index The index of which tableau pile to look at
 	 * @return true if the pile is empty, false otherwise
-	 * @throws IllegalArgumentException if index is outside of the range [0, TABLEAU_SIZE] inclusive
+	 * @throws IllegalArgumentException if index is outside of the range [0, TABLEAU_SIZE)
 	 */
 	public boolean tableauPileIsEmpty(int index) {
 		checkInvalidTableauIndex(index);
@@ -273,6 +1183,126 @@ public class SolitaireModel {
 		return foundations[index].isEmpty();
 	}
 	
+	/* ************************look at the visible cards**************************************** */
+	
+	/**
+	 * looks at the top card of the waste pile
+	 * 
+	 * @return the top card (without removing it)
+	 * @throws IllegalStateException if the waste pile is empty
+	 */
+	public Card peekAtTopWasteCard() {
+		checkEmptyWaste();
+		return waste.peekAtTopCard();
+	}
+	
+	/**
+	 * looks at the top card of the given tableau pile
+	 * 
+	 * @param tableauIndex The tableau pile to look at
+	 * @return the top card (without removing it)
+	 * @throws IllegalArgumentException if given an invalid tableau index
+	 * @throws IllegalStateException if the pile is empty
+	 */
+	public Card peekAtTopTableauCard(int tableauIndex) {
+		checkInvalidTableauIndex(tableauIndex);
+		return tableau[tableauIndex].peekAtTopCard();
+	}
+	
+	/**
+	 * looks at one of the visible cards of the given tableau pile
+	 * 
+	 * @param tableauIndex The tableau pile to look at
+	 * @param depth How far the card is from the top of the pile, where 0 is the top card
+	 * @return the card (without removing it)
+	 * @throws IllegalArgumentException if given an invalid tableau index
+	 * @throws IllegalArgumentException if depth is not in the range [0, numVisibleCards(tableauIndex))
+	 */
+	public Card peekAtVisibleTableauCard(int tableauIndex, int depth) {
+		checkInvalidTableauIndex(tableauIndex);
+		TableauPile pile = tableau[tableauIndex];
+		if(depth < 0 || depth >= pile.numVisibleCards()) {
+			throw new IllegalArgumentException("card is not visible");
+		}
+		return pile.cardAt(pile.size() - 1 - depth);
+	}
+	
+	/**
+	 * checks how many cards are visible on the given tableau pile
+	 * 
+	 * @param tableauIndex The tableau pile to look at
+	 * @return the number of visible cards
+	 * @throws IllegalArgumentException if given an invalid tableau index
+	 */
+	public int numVisibleCards(int tableauIndex) {
+		checkInvalidTableauIndex(tableauIndex);
+		return tableau[tableauIndex].numVisibleCards();
+	}
+	
+	/**
+	 * checks how many cards are hidden on the given tableau pile
+	 * 
+	 * @param tableauIndex The tableau pile to look at
+	 * @return the number of hidden cards
+	 * @throws IllegalArgumentException if given an invalid tableau index
+	 */
+	public int numHiddenCards(int tableauIndex) {
+		checkInvalidTableauIndex(tableauIndex);
+		return tableau[tableauIndex].numHiddenCards();
+	}
+	
+	/**
+	 * checks how many cards are on the given foundation
+	 * 
+	 * @param foundationIndex The foundation to look at
+	 * @return the number of cards, which is also the value of its top card (0 if empty)
+	 * @throws IllegalArgumentException if given an invalid foundation index
+	 */
+	public int foundationSize(int foundationIndex) {
+		checkInvalidFoundationIndex(foundationIndex);
+		return foundations[foundationIndex].size();
+	}
+	
+	/**
+	 * checks how many cards are in the stock
+	 * 
+	 * @return the number of cards
+	 */
+	public int stockSize() {
+		return stock.size();
+	}
+	
+	/**
+	 * checks how many cards are in the waste pile
+	 * 
+	 * @return the number of cards
+	 */
+	public int wasteSize() {
+		return waste.size();
+	}
+	
+	/* ************************package access for other representations************************ */
+	
+	//the stock pile
+	Stock stock() {
+		return stock;
+	}
+	
+	//the waste pile
+	Waste waste() {
+		return waste;
+	}
+	
+	//the tableau pile at the given index
+	TableauPile tableauPile(int index) {
+		return tableau[index];
+	}
+	
+	//the foundation at the given index
+	Foundation foundation(int index) {
+		return foundations[index];
+	}
+	
 	/* ********************************exception checks***************************************** */
 	
 	//throws exception if the waste is empty
@@ -284,14 +1314,14 @@ public class SolitaireModel {
 	
 	//throws exception for invalid tableau pile index
 	private void checkInvalidTableauIndex(int index) {
-		if(index < 0 || index > tableau.length) {
+		if(index < 0 || index >= tableau.length) {
 			throw new IllegalArgumentException("invalid tableau pile index");
 		}
 	}
 	
 	//throws exception for invalid foundation pile index
 	private void checkInvalidFoundationIndex(int index) {
-		if(index < 0 || index > foundations.length) {
+		if(index < 0 || index >= foundations.length) {
 			throw new IllegalArgumentException("invalid foundation index");
 		}
 	}
@@ -304,12 +1334,16 @@ public class SolitaireModel {
 	 * @return true if all of the foundations are filled, false otherwise
 	 */
 	public boolean gameOver() {
+		return foundationCards == Card.NUMBER_OF_CARDS;
+	}
+	
+	//counts the cards on the foundations from scratch
+	private int countFoundationCards() {
+		int count = 0;
 		for(Foundation foundation : foundations) {
-			if(!foundation.isFull()) {
-				return false;
-			}
+			count += foundation.size();
 		}
-		return true;
+		return count;
 	}
 	
 	//throws exception if a move is attempted when the game is over
@@ -321,16 +1355,24 @@ public class SolitaireModel {
 	
 	@Override
 	public String toString() {
-		String result = "Stock: " + stock;
-		result += "\nWaste: " + waste;
-		result += "\nFoundations:";
+		long start = GameMetrics.start();
+		StringBuilder result = new StringBuilder();
+		result.append("Stock: ");
+		stock.appendTo(result);
+		result.append("\nWaste: ");
+		waste.appendTo(result);
+		result.append("\nFoundations:");
 		for(Foundation f : foundations) {
-			result += "\n\t" + f;
+			result.append("\n\t");
+			f.appendTo(result);
 		}
-		result += "\nTableau:";
+		result.append("\nTableau:");
 		for(TableauPile t : tableau) {
-			result += "\n\t" + t;
+			result.append("\n\t");
+			t.appendTo(result);
 		}
-		return result;
+		String text = result.toString();
+		GameMetrics.finished(GameMetrics.TO_STRING, start);
+		return text;
 	}
 }
@@ -0,0 +1,88 @@
+package gameplay;
+
+import java.io.IOException;
+
+import setup.Card;
+import setup.SolitairePile;
+
+/**
+ * TextRenderer draws a game of solitaire as the same text as SolitaireModel.toString, but reuses its
+ * buffer between draws and only redraws the piles that changed since the last draw
+ * 
+ * A renderer is meant to be kept for the whole game it draws and is not thread safe.
+ * @author Yael Goldin
+ */
+public class TextRenderer {
+	private static final int FOUNDATION_COUNT = Card.Suit.values().length;
+	private static final int PILE_COUNT = 2 + FOUNDATION_COUNT + SolitaireModel.TABLEAU_SIZE;
+	private static final int FIRST_FOUNDATION = 2;
+	private static final int FIRST_TABLEAU = FIRST_FOUNDATION + FOUNDATION_COUNT;
+	
+	private final SolitaireModel model;
+	private final StringBuilder buffer;
+	private final StringBuilder scratch;
+	private final SolitairePile[] renderedPiles;
+	private final int[] renderedVersions;
+	private final String[] renderedLines;
+	
+	/**
+	 * initializes a renderer for the given game
+	 * 
+	 * @param model The game to draw
+	 * @throws IllegalArgumentException if the model is null
+	 */
+	public TextRenderer(SolitaireModel model) {
+		if(model == null) {
+			throw new IllegalArgumentException("null model");
+		}
+		this.model = model;
+		buffer = new StringBuilder();
+		scratch = new StringBuilder();
+		renderedPiles = new SolitairePile[PILE_COUNT];
+		renderedVersions = new int[PILE_COUNT];
+		renderedLines = new String[PILE_COUNT];
+	}
+	
+	/**
+	 * draws the game into the renderer's buffer
+	 * the buffer is reused by the next draw, so the result should be used before drawing again
+	 * 
+	 * @return the buffer holding the drawn game
+	 */
+	public CharSequence render() {
+		buffer.setLength(0);
+		buffer.append("Stock: ").append(line(0, model.stock()));
+		buffer.append("\nWaste: ").append(line(1, model.waste()));
+		buffer.append("\nFoundations:");
+		for(int f = 0; f < FOUNDATION_COUNT; f++) {
+			buffer.append("\n\t").append(line(FIRST_FOUNDATION + f, model.foundation(f)));
+		}
+		buffer.append("\nTableau:");
+		for(int t = 0; t < SolitaireModel.TABLEAU_SIZE; t++) {
+			buffer.append("\n\t").append(line(FIRST_TABLEAU + t, model.tableauPile(t)));
+		}
+		return buffer;
+	}
+	
+	/**
+	 * draws the game and appends it to the given output
+	 * 
+	 * @param out Where to write the drawn game
+	 * @throws IOException if appending to the output fails
+	 */
+	public void renderTo(Appendable out) throws IOException {
+		out.append(render());
+	}
+	
+	//finds the drawn line for a pile, redrawing it only if the pile changed since it was last drawn
+	private String line(int slot, SolitairePile pile) {
+		if(renderedPiles[slot] != pile || renderedVersions[slot] != pile.version()) {
+			scratch.setLength(0);
+			pile.appendTo(scratch);
+			renderedLines[slot] = scratch.toString();
+			renderedPiles[slot] = pile;
+			renderedVersions[slot] = pile.version();
+		}
+		return renderedLines[slot];
+	}
+}
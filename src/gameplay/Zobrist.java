@@ -0,0 +1,93 @@
+package gameplay;
+
+import java.util.SplittableRandom;
+
+import setup.Card;
+import setup.Variant;
+
+/**
+ * Zobrist holds the random keys used to hash solitaire positions
+ * a position's hash is the XOR of one key for every card at its place in its pile, plus one key for
+ * the number of visible cards on each tableau pile, so a move only has to XOR in the keys that change
+ * positions of different variants, or with different passes through a limited stock left, get one more
+ * key, which is 0 for the default draw one variant
+ * @author Yael Goldin
+ */
+final class Zobrist {
+	static final int STOCK = 0;
+	static final int WASTE = 1;
+	static final int FIRST_TABLEAU = 2;
+	static final int FIRST_FOUNDATION = FIRST_TABLEAU + SolitaireModel.TABLEAU_SIZE;
+	private static final int LOCATIONS = FIRST_FOUNDATION + Card.Suit.values().length;
+	private static final int MAX_PILE_SIZE = Card.NUMBER_OF_CARDS;
+	private static final long KEY_SEED = 0x5D1A_9C3E_7B24_F061L;
+	
+	private static final long[] CARD_KEYS = new long[LOCATIONS * MAX_PILE_SIZE * Card.NUMBER_OF_CARDS];
+	private static final long[] VISIBLE_KEYS = new long[SolitaireModel.TABLEAU_SIZE * (MAX_PILE_SIZE + 1)];
+	private static final Variant[] VARIANTS = Variant.values();
+	private static final int MAX_LIMITED_PASSES = maxLimitedPasses();
+	private static final long[] PASS_KEYS = new long[VARIANTS.length * MAX_LIMITED_PASSES];
+	
+	static {
+		SplittableRandom rand = new SplittableRandom(KEY_SEED);
+		for(int i = 0; i < CARD_KEYS.length; i++) {
+			CARD_KEYS[i] = rand.nextLong();
+		}
+		for(int i = 0; i < VISIBLE_KEYS.length; i++) {
+			VISIBLE_KEYS[i] = rand.nextLong();
+		}
+		for(int i = MAX_LIMITED_PASSES; i < PASS_KEYS.length; i++) {
+			PASS_KEYS[i] = rand.nextLong();
+		}
+	}
+	
+	//not instantiable
+	private Zobrist() {
+	}
+	
+	//the most passes through the stock of any variant that limits them
+	private static int maxLimitedPasses() {
+		int result = 1;
+		for(Variant variant : VARIANTS) {
+			if(variant.hasPassLimit()) {
+				result = Math.max(result, variant.maxPasses);
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * finds the key for a card at a position in a pile
+	 * 
+	 * @param location The pile, one of STOCK, WASTE, FIRST_TABLEAU + index or FIRST_FOUNDATION + index
+	 * @param index The position of the card in the pile, where 0 is the bottom
+	 * @param card The card
+	 * @return the key
+	 */
+	static long cardKey(int location, int index, Card card) {
+		return CARD_KEYS[(location * MAX_PILE_SIZE + index) * Card.NUMBER_OF_CARDS + card.ordinal];
+	}
+	
+	/**
+	 * finds the key for the number of visible cards on a tableau pile
+	 * 
+	 * @param tableauIndex The index of the tableau pile
+	 * @param visibleCards The number of visible cards on it
+	 * @return the key
+	 */
+	static long visibleKey(int tableauIndex, int visibleCards) {
+		return VISIBLE_KEYS[tableauIndex * (MAX_PILE_SIZE + 1) + visibleCards];
+	}
+	
+	/**
+	 * finds the key for the variant being played and the passes through the stock already made, which
+	 * only matter for variants that limit them
+	 * 
+	 * @param variant The variant
+	 * @param recycles The number of times the waste has been moved back to the stock
+	 * @return the key, which is 0 for Variant.DRAW_ONE
+	 */
+	static long passKey(Variant variant, int recycles) {
+		return PASS_KEYS[variant.ordinal() * MAX_LIMITED_PASSES + (variant.hasPassLimit() ? recycles : 0)];
+	}
+}
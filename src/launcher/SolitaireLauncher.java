@@ -0,0 +1,16 @@
+package launcher;
+
+import gameplay.Solitaire;
+import solver.HintEngine;
+
+/**
+ * SolitaireLauncher starts the text interface with hints from a HintEngine, so that gameplay itself never
+ * depends on the solver
+ * @author Yael Goldin
+ */
+public class SolitaireLauncher {
+	
+	public static void main(String[] args) {
+		Solitaire.play(new HintEngine());
+	}
+}
@@ -0,0 +1,25 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * GameEndEvent is the JDK Flight Recorder event for a game being won
+ * 
+ * SolitaireModel only emits it when metrics are enabled (see GameMetrics).
+ * @author Yael Goldin
+ */
+@Name("solitaire.GameEnd")
+@Label("Game End")
+@Category("Solitaire")
+@Description("A move put the last card on the foundations")
+public final class GameEndEvent extends jdk.jfr.Event {
+	@Label("Seed")
+	public long seed;
+	
+	@Label("Moves")
+	@Description("The number of moves made in the game, not counting ones that were undone")
+	public int moves;
+}
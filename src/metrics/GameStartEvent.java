@@ -0,0 +1,22 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * GameStartEvent is the JDK Flight Recorder event for a new game being dealt
+ * 
+ * Like every event here, it costs next to nothing unless a recording has enabled it. SolitaireModel
+ * only emits it when metrics are enabled (see GameMetrics), and never creates it otherwise.
+ * @author Yael Goldin
+ */
+@Name("solitaire.GameStart")
+@Label("Game Start")
+@Category("Solitaire")
+@Description("A new game was dealt")
+public final class GameStartEvent extends jdk.jfr.Event {
+	@Label("Seed")
+	public long seed;
+}
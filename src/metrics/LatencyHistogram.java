@@ -0,0 +1,107 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * LatencyHistogram counts latencies in buckets so percentiles can be read without keeping every sample
+ * 
+ * Latencies below 128 nanoseconds get a bucket per nanosecond. Above that, every power of two is
+ * split into 64 buckets, so a percentile is never off by more than about 1.6%. Recording is lock-free
+ * and can be done from any number of threads.
+ * @author Yael Goldin
+ */
+public class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 6;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int LINEAR_BUCKETS = SUB_BUCKETS * 2;
+	private static final int MAX_SHIFT = 40;
+	private static final long MAX_NANOS = (1L << (MAX_SHIFT + SUB_BUCKET_BITS + 1)) - 1;
+	
+	private final AtomicLongArray counts;
+	
+	/**
+	 * initializes an empty histogram
+	 */
+	public LatencyHistogram() {
+		counts = new AtomicLongArray(LINEAR_BUCKETS + MAX_SHIFT * SUB_BUCKETS);
+	}
+	
+	/**
+	 * records one latency
+	 * 
+	 * @param nanos The latency in nanoseconds, where negative latencies count as 0
+	 */
+	public void record(long nanos) {
+		counts.incrementAndGet(bucket(Math.min(Math.max(nanos, 0), MAX_NANOS)));
+	}
+	
+	/**
+	 * finds how many latencies have been recorded
+	 * 
+	 * @return the number of latencies
+	 */
+	public long count() {
+		long total = 0;
+		for(int i = 0; i < counts.length(); i++) {
+			total += counts.get(i);
+		}
+		return total;
+	}
+	
+	/**
+	 * finds the latency that the given fraction of the recorded latencies are at or below
+	 * 
+	 * @param fraction The fraction of latencies, from 0 to 1 (0.99 for the 99th percentile)
+	 * @return the latency in nanoseconds, which is 0 if nothing has been recorded
+	 */
+	public long percentileNanos(double fraction) {
+		long target = (long) Math.ceil(count() * fraction);
+		long seen = 0;
+		for(int i = 0; i < counts.length(); i++) {
+			seen += counts.get(i);
+			if(seen >= Math.max(target, 1)) {
+				return highestNanos(i);
+			}
+		}
+		return 0;
+	}
+	
+	/**
+	 * finds the latency that the given fraction of the recorded latencies are at or below
+	 * 
+	 * @param fraction The fraction of latencies, from 0 to 1 (0.99 for the 99th percentile)
+	 * @return the latency in microseconds, which is 0 if nothing has been recorded
+	 */
+	public long percentileMicros(double fraction) {
+		return percentileNanos(fraction) / 1000;
+	}
+	
+	/**
+	 * forgets every recorded latency
+	 * latencies recorded while this runs may or may not be kept
+	 */
+	public void reset() {
+		for(int i = 0; i < counts.length(); i++) {
+			counts.set(i, 0);
+		}
+	}
+	
+	//the bucket a latency goes in
+	private static int bucket(long nanos) {
+		if(nanos < LINEAR_BUCKETS) {
+			return (int) nanos;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(nanos) - SUB_BUCKET_BITS;
+		return LINEAR_BUCKETS + (shift - 1) * SUB_BUCKETS + (int) (nanos >>> shift) - SUB_BUCKETS;
+	}
+	
+	//the highest latency that goes in a bucket
+	private static long highestNanos(int bucket) {
+		if(bucket < LINEAR_BUCKETS) {
+			return bucket;
+		}
+		int shift = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+		long subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+		return ((subBucket + 1) << shift) - 1;
+	}
+}
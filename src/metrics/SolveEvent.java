@@ -0,0 +1,30 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * SolveEvent is the JDK Flight Recorder event for one run of a solver, lasting as long as the solve
+ * @author Yael Goldin
+ */
+@Name("solitaire.Solve")
+@Label("Solve")
+@Category("Solitaire")
+@Description("A solver searched a position")
+public final class SolveEvent extends jdk.jfr.Event {
+	@Label("Solver")
+	public String solver;
+	
+	@Label("Outcome")
+	public String outcome;
+	
+	@Label("Nodes")
+	@Description("The number of moves the search made")
+	public long nodes;
+	
+	@Label("Winning Moves")
+	@Description("The length of the winning line, or 0 if no win was found")
+	public int winningMoves;
+}
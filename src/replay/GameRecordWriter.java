@@ -0,0 +1,165 @@
+package replay;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import gameplay.SolitaireModel;
+import setup.Variant;
+
+/**
+ * GameRecordWriter appends games to a binary game record file
+ * 
+ * A record file starts with a header of the MAGIC number and the VERSION (4 bytes each), followed by one
+ * record per game: the seed of the deal (8 bytes), the variant (1 byte, its ordinal in Variant), the
+ * number of moves (2 bytes, unsigned) and then one MoveCodes byte per move, all big-endian. Records are
+ * buffered and only reach the file when the buffer fills, or on flush or close.
+ * 
+ * Records of the first version have no variant byte and are all draw one games. They can still be
+ * replayed, but not appended to.
+ * @author Yael Goldin
+ */
+public class GameRecordWriter implements AutoCloseable {
+	public static final int MAGIC = 0x534F4C52;
+	public static final int VERSION = 2;
+	public static final int DRAW_ONE_VERSION = 1;
+	public static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES;
+	public static final int RECORD_HEADER_SIZE = Long.BYTES + Byte.BYTES + Short.BYTES;
+	public static final int DRAW_ONE_RECORD_HEADER_SIZE = Long.BYTES + Short.BYTES;
+	public static final int MAX_MOVES_PER_GAME = 0xFFFF;
+	private static final int BUFFER_SIZE = 1 << 17;
+	
+	private final FileChannel channel;
+	private final ByteBuffer buffer;
+	private long gamesWritten;
+	
+	/**
+	 * opens a record file for appending, creating it if it does not exist
+	 * 
+	 * @param file The file to append to
+	 * @throws IOException if the file cannot be opened, the header cannot be written, or the file is not a
+	 * 		record file of the current VERSION
+	 */
+	public GameRecordWriter(Path file) throws IOException {
+		if(Files.exists(file) && Files.size(file) > 0) {
+			checkHeader(file);
+		}
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+		buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		if(channel.size() == 0) {
+			buffer.putInt(MAGIC).putInt(VERSION);
+		}
+	}
+	
+	/**
+	 * appends the moves made so far in the given game
+	 * 
+	 * @param model The game to record, which must have been dealt from its seed
+	 * @throws IllegalArgumentException if the model is null, was not dealt from its seed or has made
+	 * more than MAX_MOVES_PER_GAME moves
+	 * @throws IOException if writing to the file fails
+	 */
+	public void append(SolitaireModel model) throws IOException {
+		if(model == null || model.movesMade() > MAX_MOVES_PER_GAME) {
+			throw new IllegalArgumentException("null model or too many moves");
+		} else if(!model.isDealtFromSeed()) {
+			throw new IllegalArgumentException("model was not dealt from its seed");
+		}
+		int moveCount = model.movesMade();
+		makeRoom(RECORD_HEADER_SIZE + moveCount);
+		buffer.putLong(model.getSeed()).put((byte) model.variant().ordinal()).putShort((short) moveCount);
+		for(int i = 0; i < moveCount; i++) {
+			buffer.put((byte) MoveCodes.encode(model.moveAt(i)));
+		}
+		gamesWritten++;
+	}
+	
+	/**
+	 * appends a draw one game given as its seed and moves
+	 * 
+	 * @param seed The seed of the deal
+	 * @param moves The encoded moves (see gameplay.Move), in the order they were made
+	 * @param moveCount How many of the moves to record
+	 * @throws IllegalArgumentException if the moves are null or moveCount is out of range
+	 * @throws IOException if writing to the file fails
+	 */
+	public void append(long seed, int[] moves, int moveCount) throws IOException {
+		append(seed, Variant.DRAW_ONE, moves, moveCount);
+	}
+	
+	/**
+	 * appends a game given as its seed, variant and moves
+	 * 
+	 * @param seed The seed of the deal
+	 * @param variant The variant played
+	 * @param moves The encoded moves (see gameplay.Move), in the order they were made
+	 * @param moveCount How many of the moves to record
+	 * @throws IllegalArgumentException if the variant or moves are null or moveCount is out of range
+	 * @throws IOException if writing to the file fails
+	 */
+	public void append(long seed, Variant variant, int[] moves, int moveCount) throws IOException {
+		if(variant == null || moves == null || moveCount < 0 || moveCount > moves.length
+				|| moveCount > MAX_MOVES_PER_GAME) {
+			throw new IllegalArgumentException("invalid variant or moves");
+		}
+		makeRoom(RECORD_HEADER_SIZE + moveCount);
+		buffer.putLong(seed).put((byte) variant.ordinal()).putShort((short) moveCount);
+		for(int i = 0; i < moveCount; i++) {
+			buffer.put((byte) MoveCodes.encode(moves[i]));
+		}
+		gamesWritten++;
+	}
+	
+	/**
+	 * finds how many games this writer has appended
+	 * 
+	 * @return the number of games
+	 */
+	public long gamesWritten() {
+		return gamesWritten;
+	}
+	
+	/**
+	 * writes every buffered record to the file
+	 * 
+	 * @throws IOException if writing to the file fails
+	 */
+	public void flush() throws IOException {
+		buffer.flip();
+		while(buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+	
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+	
+	//throws exception if the existing file does not start with the header this writer would write
+	private static void checkHeader(Path file) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		try(FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+			in.read(header, 0);
+		}
+		header.flip();
+		if(header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION) {
+			throw new IOException("not a game record file of version " + VERSION + ": " + file);
+		}
+	}
+	
+	//flushes the buffer if it does not have the given number of bytes left
+	private void makeRoom(int bytes) throws IOException {
+		if(buffer.remaining() < bytes) {
+			flush();
+		}
+	}
+}
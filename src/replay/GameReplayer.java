@@ -0,0 +1,182 @@
+package replay;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import gameplay.MoveStatus;
+import gameplay.SolitaireModel;
+import setup.Variant;
+
+/**
+ * GameReplayer memory-maps game record files written by GameRecordWriter and plays every recorded game
+ * again, checking that each recorded move was legal
+ * 
+ * Usage: GameReplayer file...
+ * 
+ * Files are mapped a window at a time, so files of any size can be replayed. Files of the first version,
+ * whose records are all draw one games, are replayed too.
+ * @author Yael Goldin
+ */
+public class GameReplayer {
+	private static final long WINDOW_SIZE = 1L << 30;
+	
+	/**
+	 * called for every game that is replayed
+	 */
+	@FunctionalInterface
+	public interface Listener {
+		/**
+		 * reports one replayed game
+		 * 
+		 * @param seed The seed of the deal
+		 * @param model The game after every legal recorded move was made; only valid during this call
+		 * @param valid True if every recorded move was legal, false if the replay stopped at an illegal move
+		 */
+		void gameReplayed(long seed, SolitaireModel model, boolean valid);
+	}
+	
+	/**
+	 * the totals of replaying one file
+	 */
+	public static final class Summary {
+		public final long games;
+		public final long moves;
+		public final long wins;
+		public final long invalidGames;
+		public final long bytes;
+		public final long elapsedNanos;
+		
+		//initializes the summary
+		private Summary(long games, long moves, long wins, long invalidGames, long bytes, long elapsedNanos) {
+			this.games = games;
+			this.moves = moves;
+			this.wins = wins;
+			this.invalidGames = invalidGames;
+			this.bytes = bytes;
+			this.elapsedNanos = elapsedNanos;
+		}
+		
+		/**
+		 * finds how fast the games were replayed
+		 * 
+		 * @return the number of games replayed per second
+		 */
+		public double gamesPerSecond() {
+			return games / (elapsedNanos / 1e9);
+		}
+		
+		/**
+		 * finds how much space each game takes in the file, including the file header
+		 * 
+		 * @return the average number of bytes per game
+		 */
+		public double bytesPerGame() {
+			return games == 0 ? 0 : (double) bytes / games;
+		}
+		
+		@Override
+		public String toString() {
+			return String.format("%d games (%d won, %d invalid), %d moves, %.1f bytes/game, %.0f games/s", games,
+					wins, invalidGames, moves, bytesPerGame(), gamesPerSecond());
+		}
+	}
+	
+	//not instantiable
+	private GameReplayer() {
+	}
+	
+	public static void main(String[] args) throws IOException {
+		if(args.length == 0) {
+			System.err.println("usage: GameReplayer file...");
+			System.exit(1);
+		}
+		for(String file : args) {
+			System.out.println(file + ": " + replay(Paths.get(file), null));
+		}
+	}
+	
+	/**
+	 * replays every game in a record file
+	 * 
+	 * @param file The file to replay
+	 * @param listener Told about every game as it is replayed, or null
+	 * @return the totals of the replay
+	 * @throws IOException if the file cannot be read, has the wrong header, or ends partway through a record
+	 */
+	public static Summary replay(Path file, Listener listener) throws IOException {
+		long startTime = System.nanoTime();
+		long games = 0;
+		long moves = 0;
+		long wins = 0;
+		long invalidGames = 0;
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			MappedByteBuffer window = map(channel, 0, size);
+			if(size < GameRecordWriter.HEADER_SIZE || window.getInt() != GameRecordWriter.MAGIC) {
+				throw new IOException("not a game record file: " + file);
+			}
+			int version = window.getInt();
+			if(version != GameRecordWriter.VERSION && version != GameRecordWriter.DRAW_ONE_VERSION) {
+				throw new IOException("unsupported game record version: " + file);
+			}
+			boolean hasVariant = version == GameRecordWriter.VERSION;
+			int recordHeaderSize = hasVariant ? GameRecordWriter.RECORD_HEADER_SIZE
+					: GameRecordWriter.DRAW_ONE_RECORD_HEADER_SIZE;
+			Variant[] variants = Variant.values();
+			long windowStart = 0;
+			while(windowStart + window.position() < size) {
+				if(window.remaining() < recordHeaderSize
+						|| window.remaining() < recordHeaderSize + moveCount(window, recordHeaderSize)) {
+					long recordStart = windowStart + window.position();
+					if(windowStart + window.limit() == size) {
+						throw new IOException("truncated game record at byte " + recordStart + ": " + file);
+					}
+					windowStart = recordStart;
+					window = map(channel, windowStart, size);
+					continue;
+				}
+				long seed = window.getLong();
+				int variant = hasVariant ? Byte.toUnsignedInt(window.get()) : Variant.DRAW_ONE.ordinal();
+				if(variant >= variants.length) {
+					long variantByte = windowStart + window.position() - 1;
+					throw new IOException("unknown variant at byte " + variantByte + ": " + file);
+				}
+				int moveCount = Short.toUnsignedInt(window.getShort());
+				SolitaireModel model = new SolitaireModel(seed, variants[variant]);
+				boolean valid = true;
+				for(int i = 0; i < moveCount; i++) {
+					int code = Byte.toUnsignedInt(window.get());
+					if(valid && model.tryApply(MoveCodes.decode(code, model)) != MoveStatus.OK) {
+						valid = false;
+					}
+				}
+				games++;
+				moves += model.movesMade();
+				if(!valid) {
+					invalidGames++;
+				} else if(model.gameOver()) {
+					wins++;
+				}
+				if(listener != null) {
+					listener.gameReplayed(seed, model, valid);
+				}
+			}
+			return new Summary(games, moves, wins, invalidGames, size, System.nanoTime() - startTime);
+		}
+	}
+	
+	//maps the window of the file that starts at the given position
+	private static MappedByteBuffer map(FileChannel channel, long start, long size) throws IOException {
+		return channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_SIZE, size - start));
+	}
+	
+	//reads the move count at the end of the header of the record at the buffer's position without moving
+	//past it
+	private static int moveCount(MappedByteBuffer window, int recordHeaderSize) {
+		return Short.toUnsignedInt(window.getShort(window.position() + recordHeaderSize - Short.BYTES));
+	}
+}
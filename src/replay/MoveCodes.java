@@ -0,0 +1,121 @@
+package replay;
+
+import gameplay.Move;
+import gameplay.SolitaireModel;
+import setup.Card;
+
+/**
+ * MoveCodes maps every kind of move to a single byte for game records
+ * 
+ * A code only says which piles a move goes between. The number of cards moved is left out because it
+ * is always decided by the position: a tableau run can only start at one card, and recycling the waste
+ * always moves the whole waste. The codes are laid out as:
+ * 		0: stock to waste, 1: waste to stock
+ * 		2-5: waste to each foundation
+ * 		6-12: waste to each tableau pile
+ * 		13-40: each tableau pile to each foundation
+ * 		41-82: each tableau pile to each other tableau pile
+ * 		83-110: each foundation to each tableau pile
+ * @author Yael Goldin
+ */
+public final class MoveCodes {
+	private static final int FOUNDATIONS = Card.Suit.values().length;
+	private static final int TABLEAU = SolitaireModel.TABLEAU_SIZE;
+	private static final int WASTE_TO_FOUNDATION = 2;
+	private static final int WASTE_TO_TABLEAU = WASTE_TO_FOUNDATION + FOUNDATIONS;
+	private static final int TABLEAU_TO_FOUNDATION = WASTE_TO_TABLEAU + TABLEAU;
+	private static final int TABLEAU_TO_TABLEAU = TABLEAU_TO_FOUNDATION + TABLEAU * FOUNDATIONS;
+	private static final int FOUNDATION_TO_TABLEAU = TABLEAU_TO_TABLEAU + TABLEAU * (TABLEAU - 1);
+	
+	/**
+	 * the number of different codes, all of which fit in one unsigned byte
+	 */
+	public static final int CODE_COUNT = FOUNDATION_TO_TABLEAU + FOUNDATIONS * TABLEAU;
+	
+	/**
+	 * returned by decode for a byte that is not a move code
+	 */
+	public static final int INVALID_CODE = -1;
+	
+	//the move for each code, with a count of 0
+	private static final int[] MOVES = new int[CODE_COUNT];
+	
+	static {
+		MOVES[0] = Move.of(Move.STOCK_TO_WASTE, 0, 0, 0);
+		MOVES[1] = Move.of(Move.WASTE_TO_STOCK, 0, 0, 0);
+		for(int f = 0; f < FOUNDATIONS; f++) {
+			MOVES[WASTE_TO_FOUNDATION + f] = Move.of(Move.WASTE_TO_FOUNDATION, 0, f, 0);
+		}
+		for(int t = 0; t < TABLEAU; t++) {
+			MOVES[WASTE_TO_TABLEAU + t] = Move.of(Move.WASTE_TO_TABLEAU, 0, t, 0);
+			for(int f = 0; f < FOUNDATIONS; f++) {
+				MOVES[TABLEAU_TO_FOUNDATION + t * FOUNDATIONS + f] = Move.of(Move.TABLEAU_TO_FOUNDATION, t, f, 0);
+				MOVES[FOUNDATION_TO_TABLEAU + f * TABLEAU + t] = Move.of(Move.FOUNDATION_TO_TABLEAU, f, t, 0);
+			}
+			for(int end = 0; end < TABLEAU; end++) {
+				if(end != t) {
+					int move = Move.of(Move.TABLEAU_TO_TABLEAU, t, end, 0);
+					MOVES[encode(move)] = move;
+				}
+			}
+		}
+	}
+	
+	//not instantiable
+	private MoveCodes() {
+	}
+	
+	/**
+	 * finds the code of a move
+	 * 
+	 * @param move The encoded move (see Move)
+	 * @return the code, in the range [0, CODE_COUNT)
+	 * @throws IllegalArgumentException if the move's type or piles are out of range
+	 */
+	public static int encode(int move) {
+		int type = Move.type(move);
+		int source = Move.source(move);
+		int dest = Move.dest(move);
+		if(type == Move.STOCK_TO_WASTE) {
+			return 0;
+		} else if(type == Move.WASTE_TO_STOCK) {
+			return 1;
+		} else if(type == Move.WASTE_TO_FOUNDATION && dest < FOUNDATIONS) {
+			return WASTE_TO_FOUNDATION + dest;
+		} else if(type == Move.WASTE_TO_TABLEAU && dest < TABLEAU) {
+			return WASTE_TO_TABLEAU + dest;
+		} else if(type == Move.TABLEAU_TO_FOUNDATION && source < TABLEAU && dest < FOUNDATIONS) {
+			return TABLEAU_TO_FOUNDATION + source * FOUNDATIONS + dest;
+		} else if(type == Move.TABLEAU_TO_TABLEAU && source < TABLEAU && dest < TABLEAU && source != dest) {
+			return TABLEAU_TO_TABLEAU + source * (TABLEAU - 1) + (dest < source ? dest : dest - 1);
+		} else if(type == Move.FOUNDATION_TO_TABLEAU && source < FOUNDATIONS && dest < TABLEAU) {
+			return FOUNDATION_TO_TABLEAU + source * TABLEAU + dest;
+		}
+		throw new IllegalArgumentException("invalid move");
+	}
+	
+	/**
+	 * finds the move a code stands for in the given position
+	 * this never throws, so it can be used to replay untrusted records
+	 * 
+	 * @param code The code, as an unsigned byte
+	 * @param model The position the move is made in, which decides how many cards it moves
+	 * @return the encoded move (see Move), or INVALID_CODE if the code is out of range
+	 */
+	public static int decode(int code, SolitaireModel model) {
+		if(code < 0 || code >= CODE_COUNT) {
+			return INVALID_CODE;
+		}
+		int move = MOVES[code];
+		int type = Move.type(move);
+		int count = 1;
+		if(type == Move.STOCK_TO_WASTE) {
+			count = model.cardsToDraw();
+		} else if(type == Move.WASTE_TO_STOCK) {
+			count = model.wasteSize();
+		} else if(type == Move.TABLEAU_TO_TABLEAU) {
+			count = model.numCardsMovableWithinTableau(Move.source(move), Move.dest(move));
+		}
+		return Move.of(type, Move.source(move), Move.dest(move), count);
+	}
+}
@@ -0,0 +1,283 @@
+package server;
+
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+import gameplay.GameMetrics;
+import gameplay.Move;
+import gameplay.MoveStatus;
+import gameplay.SolitaireModel;
+import gameplay.TextRenderer;
+import replay.MoveCodes;
+import setup.Variant;
+import solver.HintEngine;
+
+/**
+ * GameSession runs the commands of one player of the game server against their game
+ * 
+ * Every command is one line. The moves use the same numbers as the text interface, with piles numbered
+ * from 1:
+ * 		1: flip the next stock cards, recycling the waste first if the stock is empty
+ * 		2: waste -> foundation
+ * 		3 tableau: waste -> tableau
+ * 		4 fromTableau toTableau: move cards between tableau piles
+ * 		5 tableau: tableau -> foundation
+ * 		6 foundation tableau: foundation -> tableau
+ * 		7: undo the last move, which is both moves of a 1 that recycled the waste
+ * A move is answered with "OK", or "WON" if it finished the game, or "ERR" and the reason it was not made.
+ * "hint" is answered with "HINT" and the command of the suggested move, found by a HintEngine shared by
+ * every session. "auto" moves every card that can safely go to the foundations, and finishes the game if
+ * every card is face up, all in one round trip. It is answered with "WON" or with "OK" and how many cards
+ * it moved.
+ * "new [seed] [variant]" deals a new game and is answered with "OK" and the seed. The variant is the name
+ * of one of the Variant constants in any case, such as "draw_three", and is draw one if it is left out,
+ * whatever the previous game was. "show" is answered with the text
+ * of the game followed by a line with just "END". "metrics" is answered the same way with GameMetrics.report,
+ * which covers every game on the server.
+ * @author Yael Goldin
+ */
+public class GameSession {
+	public static final String OK = "OK";
+	public static final String WON = "WON";
+	public static final String END_OF_SHOW = "END";
+	private static final String UNKNOWN_COMMAND = "ERR unknown command";
+	private static final String[] STATUS_ERRORS = new String[MoveStatus.ILLEGAL_MOVE + 1];
+	private static final int MAX_ARGUMENTS = 2;
+	private static final HintEngine HINTS = new HintEngine();
+	
+	static {
+		for(int status = 0; status < STATUS_ERRORS.length; status++) {
+			STATUS_ERRORS[status] = "ERR " + MoveStatus.toString(status);
+		}
+	}
+	
+	private SolitaireModel model;
+	private TextRenderer renderer;
+	private final int[] arguments;
+	
+	//where a SessionStore keeps the game while it is parked, guarded by the lock of this session
+	byte[] parkedGame;
+	long spillOffset;
+	int spillLength;
+	
+	/**
+	 * initializes a session playing the given deal
+	 * 
+	 * @param seed The seed of the first game
+	 */
+	public GameSession(long seed) {
+		arguments = new int[MAX_ARGUMENTS];
+		newGame(seed, Variant.DRAW_ONE);
+	}
+	
+	/**
+	 * finds the game being played
+	 * 
+	 * @return the model of the current game, or null if the session is parked
+	 */
+	public SolitaireModel model() {
+		return model;
+	}
+	
+	/**
+	 * runs one command
+	 * 
+	 * @param line The command, without the line ending
+	 * @return the reply, without the final line ending
+	 */
+	public String handle(String line) {
+		if(line.isEmpty()) {
+			return UNKNOWN_COMMAND;
+		}
+		char command = line.charAt(0);
+		if(command >= '1' && command <= '7') {
+			int argumentCount = parseArguments(line);
+			if(argumentCount < 0) {
+				return UNKNOWN_COMMAND;
+			}
+			return reply(move(command - '0', argumentCount));
+		} else if(line.equals("hint")) {
+			int hint = HINTS.hint(model, HintEngine.DEFAULT_BUDGET);
+			return hint == HintEngine.NO_HINT ? "ERR no moves" : "HINT " + command(hint);
+		} else if(line.equals("auto")) {
+			return autoMove();
+		} else if(line.equals("show")) {
+			return renderer.render() + "\n" + END_OF_SHOW;
+		} else if(line.equals("metrics")) {
+			return GameMetrics.report() + "\n" + END_OF_SHOW;
+		} else if(line.startsWith("new")) {
+			return newGame(line);
+		}
+		return UNKNOWN_COMMAND;
+	}
+	
+	//makes the numbered move, returning its MoveStatus or -1 if it had the wrong arguments
+	private int move(int choice, int argumentCount) {
+		int first = arguments[0] - 1;
+		int second = arguments[1] - 1;
+		if(choice == 1 && argumentCount == 0) {
+			if(model.stockIsEmpty() && !model.wasteIsEmpty()) {
+				int status = model.tryMoveWasteToStock();
+				if(status != MoveStatus.OK) {
+					return status;
+				}
+			}
+			return model.tryMoveTopStockCardToWaste();
+		} else if(choice == 2 && argumentCount == 0) {
+			return model.tryMoveTopWasteCardToFoundation();
+		} else if(choice == 3 && argumentCount == 1) {
+			return model.tryMoveTopWasteCardToTableau(first);
+		} else if(choice == 4 && argumentCount == 2) {
+			return model.tryMoveCardsWithinTableau(first, second);
+		} else if(choice == 5 && argumentCount == 1) {
+			return model.tryMoveTableauCardToFoundation(first);
+		} else if(choice == 6 && argumentCount == 2) {
+			return model.tryMoveCardFromFoundationToTableau(first, second);
+		} else if(choice == 7 && argumentCount == 0) {
+			return model.tryUndoPlayerMove();
+		}
+		return -1;
+	}
+	
+	//moves every safe card to the foundations, and finishes the game if every card is face up
+	private String autoMove() {
+		int moved = model.applySafeFoundationMoves();
+		if(!model.gameOver() && model.canAutocomplete()) {
+			moved += model.autocomplete();
+		}
+		return model.gameOver() ? WON : OK + " " + moved;
+	}
+	
+	//the reply to a move with the given status
+	private String reply(int status) {
+		if(status < 0) {
+			return UNKNOWN_COMMAND;
+		} else if(status != MoveStatus.OK) {
+			return STATUS_ERRORS[status];
+		}
+		return model.gameOver() ? WON : OK;
+	}
+	
+	/**
+	 * finds the command that makes a move
+	 * a stock move is always command 1, which recycles the waste if the stock is empty
+	 * 
+	 * @param move The encoded move (see gameplay.Move)
+	 * @return the command
+	 */
+	public static String command(int move) {
+		int type = Move.type(move);
+		int source = Move.source(move) + 1;
+		int dest = Move.dest(move) + 1;
+		if(type == Move.STOCK_TO_WASTE || type == Move.WASTE_TO_STOCK) {
+			return "1";
+		} else if(type == Move.WASTE_TO_FOUNDATION) {
+			return "2";
+		} else if(type == Move.WASTE_TO_TABLEAU) {
+			return "3 " + dest;
+		} else if(type == Move.TABLEAU_TO_TABLEAU) {
+			return "4 " + source + " " + dest;
+		} else if(type == Move.TABLEAU_TO_FOUNDATION) {
+			return "5 " + source;
+		}
+		return "6 " + source + " " + dest;
+	}
+	
+	//checks if the game has been packed away by park
+	boolean isParked() {
+		return model == null;
+	}
+	
+	//packs the game into its seed, variant and move codes and lets go of the live model, so an idle session
+	//takes a fraction of the memory
+	byte[] park() {
+		int moveCount = model.movesMade();
+		ByteBuffer packed = ByteBuffer.allocate(Long.BYTES + Byte.BYTES + Integer.BYTES + moveCount);
+		packed.putLong(model.getSeed()).put((byte) model.variant().ordinal()).putInt(moveCount);
+		for(int i = 0; i < moveCount; i++) {
+			packed.put((byte) MoveCodes.encode(model.moveAt(i)));
+		}
+		model = null;
+		renderer = null;
+		return packed.array();
+	}
+	
+	//rebuilds the live model from the bytes made by park by dealing the game again and replaying its moves,
+	//so the undo history is kept as well
+	void unpark(byte[] parked) {
+		ByteBuffer packed = ByteBuffer.wrap(parked);
+		newGame(packed.getLong(), Variant.values()[packed.get()]);
+		int moveCount = packed.getInt();
+		for(int i = 0; i < moveCount; i++) {
+			model.apply(MoveCodes.decode(Byte.toUnsignedInt(packed.get()), model));
+		}
+	}
+	
+	//deals the game asked for by a "new" command
+	private String newGame(String line) {
+		String[] words = line.substring("new".length()).trim().split(" +");
+		int wordCount = words[0].isEmpty() ? 0 : words.length;
+		Variant variant = Variant.DRAW_ONE;
+		if(wordCount > 0 && !Character.isDigit(words[wordCount - 1].charAt(0))
+				&& words[wordCount - 1].charAt(0) != '-') {
+			try {
+				variant = Variant.valueOf(words[wordCount - 1].toUpperCase(Locale.ROOT));
+			} catch(IllegalArgumentException e) {
+				return UNKNOWN_COMMAND;
+			}
+			wordCount--;
+		}
+		long seed;
+		if(wordCount == 0) {
+			seed = ThreadLocalRandom.current().nextLong();
+		} else if(wordCount == 1) {
+			try {
+				seed = Long.parseLong(words[0]);
+			} catch(NumberFormatException e) {
+				return UNKNOWN_COMMAND;
+			}
+		} else {
+			return UNKNOWN_COMMAND;
+		}
+		newGame(seed, variant);
+		return OK + " " + seed;
+	}
+	
+	//starts playing the given deal of the given variant
+	private void newGame(long seed, Variant variant) {
+		model = new SolitaireModel(seed, variant);
+		renderer = new TextRenderer(model);
+	}
+	
+	//reads the numbers after the command character into arguments, returning how many there were or -1
+	private int parseArguments(String line) {
+		int count = 0;
+		int i = 1;
+		while(i < line.length()) {
+			if(line.charAt(i) != ' ') {
+				return -1;
+			}
+			while(i < line.length() && line.charAt(i) == ' ') {
+				i++;
+			}
+			if(i == line.length()) {
+				break;
+			} else if(count == MAX_ARGUMENTS) {
+				return -1;
+			}
+			int value = 0;
+			int digits = 0;
+			while(i < line.length() && line.charAt(i) >= '0' && line.charAt(i) <= '9' && digits < 3) {
+				value = value * 10 + line.charAt(i) - '0';
+				digits++;
+				i++;
+			}
+			if(digits == 0) {
+				return -1;
+			}
+			arguments[count++] = value;
+		}
+		return count;
+	}
+}
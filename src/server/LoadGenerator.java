@@ -0,0 +1,169 @@
+package server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import gameplay.Move;
+import gameplay.MoveBuffer;
+import gameplay.SolitaireModel;
+import metrics.LatencyHistogram;
+
+/**
+ * LoadGenerator opens many sessions to a SolitaireServer at once and plays random legal moves in all of
+ * them, measuring how long the server takes to answer each move
+ * 
+ * Usage: LoadGenerator [sessions] [movesPerSession] [port] [host]
+ * 
+ * Each session keeps its own copy of the game so it only sends legal moves, and counts any reply other
+ * than OK or WON as an error. Every session connects before any of them start moving.
+ * @author Yael Goldin
+ */
+public class LoadGenerator {
+	private static final int DEFAULT_SESSIONS = 10_000;
+	private static final int DEFAULT_MOVES_PER_SESSION = 200;
+	
+	private final InetAddress host;
+	private final int port;
+	private final LatencyHistogram latencies;
+	private final AtomicLong errors;
+	
+	/**
+	 * initializes a load generator
+	 * 
+	 * @param host The address of the server
+	 * @param port The port of the server
+	 */
+	public LoadGenerator(InetAddress host, int port) {
+		this.host = host;
+		this.port = port;
+		latencies = new LatencyHistogram();
+		errors = new AtomicLong();
+	}
+	
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int sessions = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SESSIONS;
+		int moves = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MOVES_PER_SESSION;
+		int port = args.length > 2 ? Integer.parseInt(args[2]) : SolitaireServer.DEFAULT_PORT;
+		InetAddress host = args.length > 3 ? InetAddress.getByName(args[3]) : InetAddress.getLoopbackAddress();
+		System.out.println(new LoadGenerator(host, port).run(sessions, moves));
+	}
+	
+	/**
+	 * plays the given number of moves in each of the given number of sessions, all at once
+	 * 
+	 * @param sessions The number of sessions to open
+	 * @param movesPerSession The number of moves to make in each session
+	 * @return a summary of the move latencies
+	 * @throws IOException if a session could not connect or lost its connection
+	 * @throws InterruptedException if the thread is interrupted while waiting for the sessions
+	 */
+	public String run(int sessions, int movesPerSession) throws IOException, InterruptedException {
+		CountDownLatch connected = new CountDownLatch(sessions);
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor();
+		List<Future<?>> results = new ArrayList<>(sessions);
+		long startTime;
+		try {
+			for(int i = 0; i < sessions; i++) {
+				long seed = i;
+				results.add(pool.submit(() -> {
+					playSession(seed, movesPerSession, connected, start);
+					return null;
+				}));
+			}
+			connected.await();
+			startTime = System.nanoTime();
+			start.countDown();
+			for(Future<?> result : results) {
+				result.get();
+			}
+		} catch(ExecutionException e) {
+			throw new IOException("a session failed", e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+		double seconds = (System.nanoTime() - startTime) / 1e9;
+		long moves = latencies.count();
+		return String.format("%d sessions, %d moves (%d errors) in %.1f s, %.0f moves/s, latency p50=%d us"
+				+ " p99=%d us max=%d us", sessions, moves, errors.get(), seconds, moves / seconds,
+				latencies.percentileMicros(0.5), latencies.percentileMicros(0.99), latencies.percentileMicros(1));
+	}
+	
+	//connects one session and plays its moves once every session is connected
+	private void playSession(long seed, int moves, CountDownLatch connected, CountDownLatch start)
+			throws IOException, InterruptedException {
+		Socket socket;
+		try {
+			socket = new Socket(host, port);
+		} finally {
+			connected.countDown();
+		}
+		try(Socket s = socket;
+				BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(),
+						StandardCharsets.US_ASCII));
+				Writer out = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(),
+						StandardCharsets.US_ASCII))) {
+			s.setTcpNoDelay(true);
+			start.await();
+			SplittableRandom random = new SplittableRandom(seed);
+			MoveBuffer legalMoves = new MoveBuffer();
+			SolitaireModel model = null;
+			for(int i = 0; i < moves; i++) {
+				if(model == null || model.generateMoves(legalMoves) == 0) {
+					model = new SolitaireModel(seed++);
+					send(out, "new " + model.getSeed());
+					in.readLine();
+					model.generateMoves(legalMoves);
+				}
+				int move = legalMoves.get(random.nextInt(legalMoves.size()));
+				long sent = System.nanoTime();
+				send(out, command(model, move));
+				String reply = in.readLine();
+				latencies.record(System.nanoTime() - sent);
+				if(reply == null) {
+					throw new IOException("server closed the connection");
+				} else if(!reply.equals(GameSession.OK) && !reply.equals(GameSession.WON)) {
+					errors.incrementAndGet();
+				}
+			}
+			send(out, "quit");
+		}
+	}
+	
+	//writes one line to the server
+	private static void send(Writer out, String line) throws IOException {
+		out.write(line);
+		out.write('\n');
+		out.flush();
+	}
+	
+	//makes the move on the session's copy of the game and finds the command that makes it on the server
+	private static String command(SolitaireModel model, int move) {
+		int type = Move.type(move);
+		if(type == Move.STOCK_TO_WASTE || type == Move.WASTE_TO_STOCK) {
+			if(model.stockIsEmpty()) {
+				model.moveWasteToStock();
+			}
+			model.moveTopStockCardToWaste();
+		} else {
+			model.apply(move);
+		}
+		return GameSession.command(move);
+	}
+}
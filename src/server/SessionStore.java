@@ -0,0 +1,401 @@
+package server;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * SessionStore keeps the games of many sessions within a memory budget
+ * 
+ * A session is live while its game is a full SolitaireModel. When there are more live sessions than the
+ * live budget allows, the least recently used idle session is parked: its game is packed into its seed and
+ * one byte per move, which is a few percent of the size of the live game. When the parked games take more
+ * than the parked budget, the ones parked longest ago are spilled to a local file, if the store has one.
+ * A parked or spilled session is brought back to life the next time it is checked out, by dealing its game
+ * again and replaying its moves, so its undo history is kept.
+ * 
+ * The store can be shared by every connection of a server. Its own lock only guards the bookkeeping of
+ * which sessions are live, parked and spilled. A game is parked, brought back and spilled holding only the
+ * lock of its session, and the spill file's read lock, so replaying one game or writing one to the file
+ * never holds up the other connections. Compacting the spill file takes the spill file's write lock.
+ * @author Yael Goldin
+ */
+public class SessionStore implements AutoCloseable {
+	/**
+	 * roughly how much heap one live session takes, measured with a game in progress that has been drawn
+	 */
+	public static final long LIVE_SESSION_BYTES = 5 * 1024;
+	private static final long PARKED_OVERHEAD_BYTES = 64;
+	private static final long MIN_COMPACTION_BYTES = 1 << 20;
+	
+	private final long maxLiveSessions;
+	private final long maxParkedBytes;
+	private final Path spillPath;
+	private FileChannel spillFile;
+	private final ReadWriteLock spillLock;
+	private final LinkedHashSet<GameSession> idleLive;
+	private final LinkedHashSet<GameSession> parked;
+	private final LinkedHashSet<GameSession> spilled;
+	private int checkedOut;
+	private long parkedBytes;
+	private long spillEnd;
+	private long spillGarbage;
+	
+	/**
+	 * initializes a store
+	 * 
+	 * @param liveBudgetBytes How much heap the live sessions may take, counting LIVE_SESSION_BYTES each
+	 * @param parkedBudgetBytes How much heap the parked sessions may take before they are spilled
+	 * @param spillPath The file to spill parked sessions to, which is replaced, or null to keep every parked
+	 * session in memory
+	 * @throws IllegalArgumentException if either budget is negative
+	 * @throws IOException if the spill file cannot be created
+	 */
+	public SessionStore(long liveBudgetBytes, long parkedBudgetBytes, Path spillPath) throws IOException {
+		if(liveBudgetBytes < 0 || parkedBudgetBytes < 0) {
+			throw new IllegalArgumentException("negative budget");
+		}
+		maxLiveSessions = liveBudgetBytes / LIVE_SESSION_BYTES;
+		maxParkedBytes = parkedBudgetBytes;
+		this.spillPath = spillPath;
+		spillLock = new ReentrantReadWriteLock();
+		if(spillPath != null) {
+			spillFile = openSpillFile(spillPath);
+		}
+		idleLive = new LinkedHashSet<>();
+		parked = new LinkedHashSet<>();
+		spilled = new LinkedHashSet<>();
+	}
+	
+	/**
+	 * starts a new session, which is not checked out
+	 * 
+	 * @param seed The seed of the session's first game
+	 * @return the session
+	 */
+	public GameSession open(long seed) {
+		GameSession session = new GameSession(seed);
+		synchronized(this) {
+			idleLive.add(session);
+		}
+		evict();
+		return session;
+	}
+	
+	/**
+	 * brings a session back to life if it was parked and keeps it live until it is checked in
+	 * a session must only be checked out by one thread at a time
+	 * 
+	 * @param session The session to use
+	 * @throws UncheckedIOException if the session was spilled and cannot be read back
+	 */
+	public void checkOut(GameSession session) {
+		synchronized(session) {
+			byte[] game = null;
+			synchronized(this) {
+				if(idleLive.remove(session)) {
+					checkedOut++;
+					return;
+				} else if(parked.remove(session)) {
+					game = session.parkedGame;
+					parkedBytes -= parkedSize(game);
+					session.parkedGame = null;
+					checkedOut++;
+				} else if(!spilled.contains(session)) {
+					throw new IllegalStateException("session is not in this store or is already checked out");
+				}
+			}
+			if(game == null) {
+				game = readSpilled(session);
+				synchronized(this) {
+					checkedOut++;
+				}
+			}
+			session.unpark(game);
+		}
+	}
+	
+	/**
+	 * lets a session be parked again once it is the least recently used
+	 * 
+	 * @param session The session that was checked out
+	 */
+	public void checkIn(GameSession session) {
+		synchronized(this) {
+			checkedOut--;
+			idleLive.add(session);
+		}
+		evict();
+	}
+	
+	/**
+	 * removes a session from the store for good
+	 * 
+	 * @param session The session to remove, which must not be checked out
+	 */
+	public void remove(GameSession session) {
+		synchronized(session) {
+			synchronized(this) {
+				if(parked.remove(session)) {
+					parkedBytes -= parkedSize(session.parkedGame);
+					session.parkedGame = null;
+				} else if(spilled.remove(session)) {
+					spillGarbage += session.spillLength;
+				} else {
+					idleLive.remove(session);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * finds how many sessions have a live game
+	 * 
+	 * @return the number of live sessions
+	 */
+	public synchronized int liveSessions() {
+		return idleLive.size() + checkedOut;
+	}
+	
+	/**
+	 * finds how many sessions are parked in memory
+	 * 
+	 * @return the number of parked sessions
+	 */
+	public synchronized int parkedSessions() {
+		return parked.size();
+	}
+	
+	/**
+	 * finds how many sessions are spilled to the file
+	 * 
+	 * @return the number of spilled sessions
+	 */
+	public synchronized int spilledSessions() {
+		return spilled.size();
+	}
+	
+	/**
+	 * closes and deletes the spill file, losing every spilled session
+	 * 
+	 * @throws IOException if the spill file cannot be closed or deleted
+	 */
+	@Override
+	public void close() throws IOException {
+		spillLock.writeLock().lock();
+		try {
+			FileChannel file;
+			synchronized(this) {
+				file = spillFile;
+				spillFile = null;
+				spilled.clear();
+			}
+			if(file != null) {
+				file.close();
+				Files.deleteIfExists(spillPath);
+			}
+		} finally {
+			spillLock.writeLock().unlock();
+		}
+	}
+	
+	//parks the least recently used idle sessions until the live budget is met, then spills the oldest
+	//parked sessions until the parked budget is met
+	private void evict() {
+		boolean evicted;
+		do {
+			evicted = parkLeastRecentlyUsed() || spillOldestParked();
+		} while(evicted);
+	}
+	
+	//parks the least recently used idle session if there are too many live sessions
+	//returns false if there was nothing to park
+	private boolean parkLeastRecentlyUsed() {
+		GameSession session;
+		synchronized(this) {
+			session = oldest(idleLive);
+			if(session == null || idleLive.size() + checkedOut <= maxLiveSessions) {
+				return false;
+			}
+		}
+		synchronized(session) {
+			synchronized(this) {
+				//checked out or parked by another thread since it was picked
+				if(idleLive.size() + checkedOut <= maxLiveSessions || oldest(idleLive) != session) {
+					return true;
+				}
+				idleLive.remove(session);
+			}
+			byte[] game = session.park();
+			synchronized(this) {
+				session.parkedGame = game;
+				parked.add(session);
+				parkedBytes += parkedSize(game);
+			}
+		}
+		return true;
+	}
+	
+	//spills the session parked longest ago if the parked sessions take too much heap
+	//returns false if there was nothing to spill
+	private boolean spillOldestParked() {
+		GameSession session;
+		synchronized(this) {
+			session = oldest(parked);
+			if(spillFile == null || session == null || parkedBytes <= maxParkedBytes) {
+				return false;
+			}
+		}
+		compactSpillFileIfWasteful();
+		synchronized(session) {
+			spillLock.readLock().lock();
+			try {
+				long offset;
+				synchronized(this) {
+					//brought back or spilled by another thread since it was picked
+					if(spillFile == null || parkedBytes <= maxParkedBytes || oldest(parked) != session) {
+						return true;
+					}
+					parked.remove(session);
+					parkedBytes -= parkedSize(session.parkedGame);
+					offset = spillEnd;
+					spillEnd += session.parkedGame.length;
+				}
+				writeSpilled(session, offset);
+				synchronized(this) {
+					spilled.add(session);
+				}
+			} finally {
+				spillLock.readLock().unlock();
+			}
+		}
+		return true;
+	}
+	
+	//the session that was added to the set longest ago, or null if the set is empty
+	private static GameSession oldest(LinkedHashSet<GameSession> sessions) {
+		return sessions.isEmpty() ? null : sessions.iterator().next();
+	}
+	
+	//the heap taken by a parked game, counting its array and its place in the parked set
+	private static long parkedSize(byte[] game) {
+		return game.length + PARKED_OVERHEAD_BYTES;
+	}
+	
+	//writes a parked game to its place in the spill file and lets go of it
+	private void writeSpilled(GameSession session, long offset) {
+		try {
+			ByteBuffer game = ByteBuffer.wrap(session.parkedGame);
+			session.spillOffset = offset;
+			session.spillLength = game.remaining();
+			while(game.hasRemaining()) {
+				offset += spillFile.write(game, offset);
+			}
+			session.parkedGame = null;
+		} catch(IOException e) {
+			throw new UncheckedIOException("could not spill session", e);
+		}
+	}
+	
+	//reads a spilled game back from the spill file, leaving its space as garbage
+	private byte[] readSpilled(GameSession session) {
+		spillLock.readLock().lock();
+		try {
+			synchronized(this) {
+				//the spill file was closed since the session was looked up
+				if(!spilled.remove(session)) {
+					throw new IllegalStateException("session is not in this store or is already checked out");
+				}
+			}
+			byte[] game = new byte[session.spillLength];
+			readFully(spillFile, ByteBuffer.wrap(game), session.spillOffset);
+			synchronized(this) {
+				spillGarbage += session.spillLength;
+			}
+			return game;
+		} catch(IOException e) {
+			throw new UncheckedIOException("could not read spilled session", e);
+		} finally {
+			spillLock.readLock().unlock();
+		}
+	}
+	
+	//compacts the spill file if most of it is the space of games that were read back
+	private void compactSpillFileIfWasteful() {
+		synchronized(this) {
+			if(!spillFileIsWasteful()) {
+				return;
+			}
+		}
+		spillLock.writeLock().lock();
+		try {
+			List<GameSession> games;
+			synchronized(this) {
+				if(spillFile == null || !spillFileIsWasteful()) {
+					return;
+				}
+				games = new ArrayList<>(spilled);
+			}
+			long end = compactSpillFile(games);
+			synchronized(this) {
+				spillEnd = end;
+				spillGarbage = 0;
+			}
+		} catch(IOException e) {
+			throw new UncheckedIOException("could not compact spill file", e);
+		} finally {
+			spillLock.writeLock().unlock();
+		}
+	}
+	
+	//checks if the space of games read back is big enough to be worth compacting away
+	private boolean spillFileIsWasteful() {
+		return spillGarbage > MIN_COMPACTION_BYTES && spillGarbage > spillEnd / 2;
+	}
+	
+	//moves the given spilled games down over the space of the games read back, then shortens the file
+	//the games are moved in order of their offsets, so each one only ever moves towards the start of the file
+	//returns the new end of the file
+	private long compactSpillFile(List<GameSession> games) throws IOException {
+		games.sort(Comparator.comparingLong(session -> session.spillOffset));
+		long end = 0;
+		for(GameSession session : games) {
+			ByteBuffer game = ByteBuffer.allocate(session.spillLength);
+			readFully(spillFile, game, session.spillOffset);
+			game.flip();
+			session.spillOffset = end;
+			while(game.hasRemaining()) {
+				end += spillFile.write(game, end);
+			}
+		}
+		spillFile.truncate(end);
+		return end;
+	}
+	
+	//creates an empty spill file
+	private static FileChannel openSpillFile(Path path) throws IOException {
+		return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+	}
+	
+	//reads until the buffer is full
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while(buffer.hasRemaining()) {
+			int read = channel.read(buffer, position);
+			if(read < 0) {
+				throw new IOException("spill file is truncated");
+			}
+			position += read;
+		}
+	}
+}
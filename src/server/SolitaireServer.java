@@ -0,0 +1,179 @@
+package server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SolitaireServer hosts games of solitaire for many players at once over a line protocol on a local
+ * TCP port (see GameSession for the commands)
+ * 
+ * Usage: SolitaireServer [port] [liveBudgetMegabytes] [parkedBudgetMegabytes] [spillFile]
+ * 
+ * Every connection is one player with their own game, served by its own virtual thread, so tens of
+ * thousands of connections can be open at once. The games are kept in a SessionStore, which parks the
+ * games of idle players when they go over its memory budget.
+ * @author Yael Goldin
+ */
+public class SolitaireServer implements AutoCloseable {
+	public static final int DEFAULT_PORT = 7341;
+	private static final int BACKLOG = 4096;
+	
+	private final ServerSocket serverSocket;
+	private final SessionStore store;
+	private final ExecutorService connections;
+	private final Set<Socket> openSockets;
+	private final AtomicInteger activeSessions;
+	private final Thread acceptor;
+	
+	/**
+	 * starts a server listening on the loopback address that keeps every game live
+	 * 
+	 * @param port The port to listen on, or 0 for any free port
+	 * @throws IOException if the port cannot be opened
+	 */
+	public SolitaireServer(int port) throws IOException {
+		this(port, new SessionStore(Long.MAX_VALUE, Long.MAX_VALUE, null));
+	}
+	
+	/**
+	 * starts a server listening on the loopback address
+	 * 
+	 * @param port The port to listen on, or 0 for any free port
+	 * @param store Where to keep the players' games, which is closed when the server is
+	 * @throws IllegalArgumentException if the store is null
+	 * @throws IOException if the port cannot be opened
+	 */
+	public SolitaireServer(int port, SessionStore store) throws IOException {
+		if(store == null) {
+			throw new IllegalArgumentException("null store");
+		}
+		this.store = store;
+		serverSocket = new ServerSocket();
+		serverSocket.setReuseAddress(true);
+		serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+		connections = Executors.newVirtualThreadPerTaskExecutor();
+		openSockets = ConcurrentHashMap.newKeySet();
+		activeSessions = new AtomicInteger();
+		acceptor = new Thread(this::acceptConnections, "solitaire-acceptor");
+		acceptor.start();
+	}
+	
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+		long liveBudget = args.length > 1 ? Long.parseLong(args[1]) << 20 : Long.MAX_VALUE;
+		long parkedBudget = args.length > 2 ? Long.parseLong(args[2]) << 20 : Long.MAX_VALUE;
+		SessionStore store = new SessionStore(liveBudget, parkedBudget,
+				args.length > 3 ? Paths.get(args[3]) : null);
+		SolitaireServer server = new SolitaireServer(port, store);
+		System.out.println("listening on port " + server.port());
+		server.acceptor.join();
+	}
+	
+	/**
+	 * finds the port the server is listening on
+	 * 
+	 * @return the port
+	 */
+	public int port() {
+		return serverSocket.getLocalPort();
+	}
+	
+	/**
+	 * finds how many players are connected
+	 * 
+	 * @return the number of open sessions
+	 */
+	public int activeSessions() {
+		return activeSessions.get();
+	}
+	
+	/**
+	 * finds where the players' games are kept
+	 * 
+	 * @return the session store
+	 */
+	public SessionStore store() {
+		return store;
+	}
+	
+	/**
+	 * stops accepting connections, disconnects every player and closes the session store
+	 * 
+	 * @throws IOException if the server socket or the session store cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		serverSocket.close();
+		for(Socket socket : openSockets) {
+			socket.close();
+		}
+		connections.shutdownNow();
+		store.close();
+	}
+	
+	//accepts connections until the server socket is closed
+	private void acceptConnections() {
+		while(!serverSocket.isClosed()) {
+			try {
+				Socket socket = serverSocket.accept();
+				socket.setTcpNoDelay(true);
+				openSockets.add(socket);
+				connections.execute(() -> serve(socket));
+			} catch(IOException e) {
+				if(!serverSocket.isClosed()) {
+					System.err.println("accept failed: " + e.getMessage());
+				}
+			}
+		}
+	}
+	
+	//runs one player's commands until they quit or disconnect
+	private void serve(Socket socket) {
+		activeSessions.incrementAndGet();
+		try(Socket s = socket;
+				BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(),
+						StandardCharsets.US_ASCII));
+				Writer out = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(),
+						StandardCharsets.US_ASCII))) {
+			GameSession session = store.open(ThreadLocalRandom.current().nextLong());
+			try {
+				String line;
+				while((line = in.readLine()) != null && !line.equals("quit")) {
+					String reply;
+					store.checkOut(session);
+					try {
+						reply = session.handle(line);
+					} finally {
+						store.checkIn(session);
+					}
+					out.write(reply);
+					out.write('\n');
+					out.flush();
+				}
+			} finally {
+				store.remove(session);
+			}
+		} catch(IOException e) {
+			//the player disconnected, so there is nobody to tell
+		} finally {
+			openSockets.remove(socket);
+			activeSessions.decrementAndGet();
+		}
+	}
+}
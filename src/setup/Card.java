@@ -2,15 +2,22 @@ package setup;
 
 /**
  * Card represents a single card in a standard deck of cards
+ * there is exactly one instance of each of the 52 cards, so cards can be compared with ==
  * @author Yael Goldin
  */
-public class Card {
+public final class Card {
 	public final Suit suit;
 	public final int value;
+	public final int ordinal;
+	private final boolean red;
+	private final String representation;
 	private static final String[] REPRESENTATIONS = {"A", "2", "3", "4", "5", "6", "7", "8", "9", "10",
 			"J", "Q", "K"};
 	public static final int SMALLEST_VALUE = 1;
 	public static final int LARGEST_VALUE = 13;
+	public static final int CARDS_PER_SUIT = LARGEST_VALUE - SMALLEST_VALUE + 1;
+	public static final int NUMBER_OF_CARDS = CARDS_PER_SUIT * 4;
+	private static final Card[] ALL_CARDS = new Card[NUMBER_OF_CARDS];
 	
 	/**
 	 * the different suits possible
@@ -19,20 +26,52 @@ public class Card {
 		SPADES, DIAMONDS, CLUBS, HEARTS;
 	}
 	
+	static {
+		for(Suit suit : Suit.values()) {
+			for(int value = SMALLEST_VALUE; value <= LARGEST_VALUE; value++) {
+				Card card = new Card(value, suit);
+				ALL_CARDS[card.ordinal] = card;
+			}
+		}
+	}
+	
+	//initializes the card with the given values
+	private Card(int value, Suit suit) {
+		this.value = value;
+		this.suit = suit;
+		ordinal = suit.ordinal() * CARDS_PER_SUIT + value - SMALLEST_VALUE;
+		red = suit == Suit.DIAMONDS || suit == Suit.HEARTS;
+		representation = REPRESENTATIONS[value - 1] + suit.toString().charAt(0);
+	}
+	
 	/**
-	 * initializes the card with the given values
+	 * finds the card with the given values
 	 * 
 	 * @param value The value of the card (1 = Ace, 2-10, 11-13 = Jack/Queen/King)
 	 * @param suit The suit of the card
+	 * @return the card
 	 * @throws IllegalArgumentException if the suit is null or the value is outside of the range
 	 * [SMALLEST_VALUE, LARGEST_VALUE] inclusive
 	 */
-	public Card(int value, Suit suit) {
+	public static Card of(int value, Suit suit) {
 		if(value < SMALLEST_VALUE || value > LARGEST_VALUE || suit == null) {
 			throw new IllegalArgumentException("invalid value/suit");
 		}
-		this.value = value;
-		this.suit = suit;
+		return ALL_CARDS[suit.ordinal() * CARDS_PER_SUIT + value - SMALLEST_VALUE];
+	}
+	
+	/**
+	 * finds the card with the given ordinal
+	 * 
+	 * @param ordinal The ordinal of the card, in the range [0, NUMBER_OF_CARDS)
+	 * @return the card
+	 * @throws IllegalArgumentException if the ordinal is outside of the range
+	 */
+	public static Card ofOrdinal(int ordinal) {
+		if(ordinal < 0 || ordinal >= NUMBER_OF_CARDS) {
+			throw new IllegalArgumentException("invalid ordinal");
+		}
+		return ALL_CARDS[ordinal];
 	}
 	
 	/**
@@ -41,7 +80,7 @@ public class Card {
 	 * @return true if it is a diamonds or hearts
 	 */
 	public boolean isRed() {
-		return suit == Suit.DIAMONDS || suit == Suit.HEARTS;
+		return red;
 	}
 	
 	/**
@@ -50,7 +89,7 @@ public class Card {
 	 * @return true if it is a clubs or spades
 	 */
 	public boolean isBlack() {
-		return suit == Suit.CLUBS || suit == Suit.SPADES;
+		return !red;
 	}
 	
 	/**
@@ -60,12 +99,12 @@ public class Card {
 	 * @return true if they are opposite colors (one is red, one is black), false if they are the same color
 	 */
 	public boolean isOtherColor(Card otherCard) {
-		return isBlack() != otherCard.isBlack();
+		return red != otherCard.red;
 	}
 	
 	@Override
 	public String toString() {
-		return REPRESENTATIONS[value - 1] + suit.toString().charAt(0);
+		return representation;
 	}
 	
 	/**
@@ -0,0 +1,140 @@
+package setup;
+
+/**
+ * CardStack is a fixed-capacity stack of cards backed by an array
+ * it is not synchronized and does not check its bounds, so callers are responsible for only popping
+ * or peeking when it is not empty and for never holding more than MAX_CARDS cards
+ * @author Yael Goldin
+ */
+public final class CardStack {
+	public static final int MAX_CARDS = Card.NUMBER_OF_CARDS;
+	private final Card[] cards;
+	private int size;
+	private int version;
+	
+	/**
+	 * initializes an empty stack
+	 */
+	public CardStack() {
+		cards = new Card[MAX_CARDS];
+	}
+	
+	/**
+	 * adds a card to the top of the stack
+	 * 
+	 * @param card The card to add
+	 */
+	public void push(Card card) {
+		cards[size++] = card;
+		version++;
+	}
+	
+	/**
+	 * removes the top card of the stack
+	 * 
+	 * @return the removed card
+	 */
+	public Card pop() {
+		version++;
+		return cards[--size];
+	}
+	
+	/**
+	 * looks at the top card of the stack without removing it
+	 * 
+	 * @return the top card
+	 */
+	public Card peek() {
+		return cards[size - 1];
+	}
+	
+	/**
+	 * looks at the card at the given position without removing it
+	 * 
+	 * @param index The position of the card, where 0 is the bottom of the stack
+	 * @return the card at that position
+	 */
+	public Card get(int index) {
+		return cards[index];
+	}
+	
+	/**
+	 * finds the number of cards in the stack
+	 * 
+	 * @return the number of cards
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * checks if the stack is empty
+	 * 
+	 * @return true if it is, false otherwise
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	
+	/**
+	 * finds the version of the stack, which changes every time a card is added or removed, so callers
+	 * can tell when something they derived from the stack is out of date
+	 * 
+	 * @return the version
+	 */
+	public int version() {
+		return version;
+	}
+	
+	/**
+	 * moves the given number of cards from the top of this stack onto the top of the other stack,
+	 * keeping them in the same order
+	 * 
+	 * @param dest The stack to move the cards to
+	 * @param count The number of cards to move
+	 */
+	public void moveTopCardsTo(CardStack dest, int count) {
+		size -= count;
+		System.arraycopy(cards, size, dest.cards, dest.size, count);
+		dest.size += count;
+		version++;
+		dest.version++;
+	}
+	
+	/**
+	 * moves all of the cards in this stack onto the other stack one at a time, so they end up in the
+	 * reverse order
+	 * 
+	 * @param dest The stack to move the cards to
+	 */
+	public void moveAllReversedTo(CardStack dest) {
+		while(size > 0) {
+			dest.cards[dest.size++] = cards[--size];
+		}
+		version++;
+		dest.version++;
+	}
+	
+	/**
+	 * appends the cards from the bottom of the stack to the top, formatted as "[a, b, c]"
+	 * 
+	 * @param out The builder to append to
+	 */
+	public void appendTo(StringBuilder out) {
+		out.append('[');
+		for(int i = 0; i < size; i++) {
+			if(i > 0) {
+				out.append(", ");
+			}
+			out.append(cards[i]);
+		}
+		out.append(']');
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder();
+		appendTo(result);
+		return result.toString();
+	}
+}
@@ -1,41 +1,64 @@
 package setup;
 
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 import setup.Card.Suit;
 
 /**
  * Deck represents a whole 52-card deck
+ * the deck is shuffled once when it is created and then dealt from the top in order
  * @author Yael Goldin
  */
 public class Deck extends SolitairePile {
-	private List<Card> cards;
-	private Random rand;
+	public static final int DECK_SIZE = Card.NUMBER_OF_CARDS;
+	private Card[] cards;
+	private int nextCard;
+	public final long seed;
 	
 	/**
-	 * initializes a deck with all 52 cards
+	 * initializes a deck with all 52 cards, shuffled with a random seed
 	 */
 	public Deck() {
-		cards = new LinkedList<>();
+		this(ThreadLocalRandom.current().nextLong());
+	}
+	
+	/**
+	 * initializes a deck with all 52 cards, shuffled with the given seed
+	 * decks created with the same seed are always dealt in the same order
+	 * 
+	 * @param seed The seed used to shuffle the deck
+	 */
+	public Deck(long seed) {
+		cards = new Card[DECK_SIZE];
+		int count = 0;
 		for(int value = Card.SMALLEST_VALUE; value <= Card.LARGEST_VALUE; value++) {
 			for(Suit suitType : Card.Suit.values()) {
-				cards.add(new Card(value, suitType));
+				cards[count++] = Card.of(value, suitType);
 			}
 		}
-		rand = new Random();
+		this.seed = seed;
+		shuffle(new Random(seed));
+	}
+	
+	//Fisher-Yates shuffle of the whole deck
+	private void shuffle(Random rand) {
+		for(int i = cards.length - 1; i > 0; i--) {
+			int swapIdx = rand.nextInt(i + 1);
+			Card temp = cards[i];
+			cards[i] = cards[swapIdx];
+			cards[swapIdx] = temp;
+		}
 	}
 	
 	/**
-	 * removes a random card from the deck
+	 * removes the next card from the shuffled deck
 	 * 
 	 * @return the removed card
 	 * @throws IllegalStateException if the deck is empty
 	 */
-	public Card removeRandomCard() {
+	public Card dealCard() {
 		exceptionIfEmpty();
-		int idx = rand.nextInt(cards.size());
-		return cards.remove(idx);
+		return cards[nextCard++];
 	}
 	
 	/**
@@ -44,11 +67,35 @@ public class Deck extends SolitairePile {
 	 * @return the number of cards in the deck
 	 */
 	public int size() {
-		return cards.size();
+		return cards.length - nextCard;
 	}
 	
 	@Override
 	public boolean isEmpty() {
-		return cards.isEmpty();
+		return nextCard == cards.length;
+	}
+	
+	@Override
+	public int version() {
+		return nextCard;
+	}
+	
+	@Override
+	public void appendTo(StringBuilder out) {
+		out.append('[');
+		for(int i = nextCard; i < cards.length; i++) {
+			if(i > nextCard) {
+				out.append(", ");
+			}
+			out.append(cards[i]);
+		}
+		out.append(']');
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder();
+		appendTo(result);
+		return result.toString();
 	}
 }
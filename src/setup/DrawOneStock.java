@@ -0,0 +1,29 @@
+package setup;
+
+/**
+ * DrawOneStock is the stock of the variants that turn over one card at a time
+ * @author Yael Goldin
+ */
+final class DrawOneStock extends Stock {
+	
+	//initializes the stock (see Stock)
+	DrawOneStock(Variant variant, CardStack cards, Waste associatedWaste, int recycles) {
+		super(variant, cards, associatedWaste, recycles);
+	}
+	
+	@Override
+	public int nextDrawSize() {
+		return isEmpty() ? 0 : 1;
+	}
+	
+	@Override
+	public void drawCards() {
+		exceptionIfEmpty();
+		associatedWastePile.addCard(cards.pop());
+	}
+	
+	@Override
+	public void returnDrawnCards(int count) {
+		cards.push(associatedWastePile.removeTopCard());
+	}
+}
@@ -0,0 +1,35 @@
+package setup;
+
+/**
+ * DrawThreeStock is the stock of the variants that turn over three cards at a time, or all of the cards
+ * left if there are fewer than three
+ * @author Yael Goldin
+ */
+final class DrawThreeStock extends Stock {
+	private static final int CARDS_PER_DRAW = 3;
+	
+	//initializes the stock (see Stock)
+	DrawThreeStock(Variant variant, CardStack cards, Waste associatedWaste, int recycles) {
+		super(variant, cards, associatedWaste, recycles);
+	}
+	
+	@Override
+	public int nextDrawSize() {
+		return Math.min(CARDS_PER_DRAW, cards.size());
+	}
+	
+	@Override
+	public void drawCards() {
+		exceptionIfEmpty();
+		for(int i = nextDrawSize(); i > 0; i--) {
+			associatedWastePile.addCard(cards.pop());
+		}
+	}
+	
+	@Override
+	public void returnDrawnCards(int count) {
+		for(int i = 0; i < count; i++) {
+			cards.push(associatedWastePile.removeTopCard());
+		}
+	}
+}
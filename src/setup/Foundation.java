@@ -1,6 +1,5 @@
 package setup;
 
-import java.util.Stack;
 import setup.Card.Suit;
 
 /**
@@ -8,7 +7,7 @@ import setup.Card.Suit;
  * @author Yael Goldin
  */
 public class Foundation extends SolitairePile {
-	private Stack<Card> cards;
+	private final CardStack cards;
 	public final Suit foundationSuit;
 	
 	/**
@@ -17,7 +16,7 @@ public class Foundation extends SolitairePile {
 	 * @param foundationSuit The suit of the foundation
 	 */
 	public Foundation(Suit foundationSuit) {
-		cards = new Stack<>();
+		cards = new CardStack();
 		this.foundationSuit = foundationSuit;
 	}
 	
@@ -48,12 +47,18 @@ public class Foundation extends SolitairePile {
 	 */
 	public boolean canAddCard(Card card) {
 		Card.checkNullCard(card);
-		if(isFull()) {
-			return false;
-		}
-		boolean addAce = isEmpty() && card.value == Card.SMALLEST_VALUE;
-		boolean addOther = (!isEmpty() && card.value == cards.peek().value + 1);
-		return card.suit == foundationSuit && (addAce || addOther);
+		return card.suit == foundationSuit && card.value == cards.size() + Card.SMALLEST_VALUE;
+	}
+	
+	/**
+	 * removes the top card of the foundation
+	 * 
+	 * @return the removed card
+	 * @throws IllegalStateException if the foundation is empty
+	 */
+	public Card removeTopCard() {
+		exceptionIfEmpty();
+		return cards.pop();
 	}
 	
 	/**
@@ -91,17 +96,38 @@ public class Foundation extends SolitairePile {
 		return cards.size() == Card.LARGEST_VALUE - Card.SMALLEST_VALUE + 1;
 	}
 	
+	/**
+	 * finds the number of cards on the foundation
+	 * 
+	 * @return the number of cards, which is also the value of the top card (0 if empty)
+	 */
+	public int size() {
+		return cards.size();
+	}
+	
 	@Override
 	public boolean isEmpty() {
 		return cards.isEmpty();
 	}
 	
 	@Override
-	public String toString() {
-		String result = foundationSuit.toString().charAt(0) + "[";
+	public int version() {
+		return cards.version();
+	}
+	
+	@Override
+	public void appendTo(StringBuilder out) {
+		out.append(foundationSuit.toString().charAt(0)).append('[');
 		if(!isEmpty()) {
-			result += cards.peek();
+			out.append(cards.peek());
 		}
-		return result + "]";
+		out.append(']');
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder();
+		appendTo(result);
+		return result.toString();
 	}
 }
@@ -0,0 +1,52 @@
+package setup;
+
+/**
+ * Rules answers the questions the piles ask about pairs of cards with a single array load, from tables
+ * built once when the class is loaded
+ * 
+ * The tables are indexed by Card.ordinal: one says whether a card can be stacked on another in the
+ * tableau (one lower and of the opposite color), and one says which foundation a card goes to. The
+ * foundations of a game are always in the order of Card.Suit.values().
+ * @author Yael Goldin
+ */
+public final class Rules {
+	private static final boolean[] CAN_STACK = new boolean[Card.NUMBER_OF_CARDS * Card.NUMBER_OF_CARDS];
+	private static final byte[] FOUNDATION_INDEX = new byte[Card.NUMBER_OF_CARDS];
+	
+	static {
+		for(int ordinal = 0; ordinal < Card.NUMBER_OF_CARDS; ordinal++) {
+			Card card = Card.ofOrdinal(ordinal);
+			FOUNDATION_INDEX[ordinal] = (byte) card.suit.ordinal();
+			for(int below = 0; below < Card.NUMBER_OF_CARDS; below++) {
+				Card belowCard = Card.ofOrdinal(below);
+				CAN_STACK[ordinal * Card.NUMBER_OF_CARDS + below] = belowCard.isOtherColor(card)
+						&& card.value == belowCard.value - 1;
+			}
+		}
+	}
+	
+	//not instantiable
+	private Rules() {
+	}
+	
+	/**
+	 * checks if a card can be put on another card in the tableau
+	 * 
+	 * @param card The card being moved
+	 * @param below The card it would be put on
+	 * @return true if the card is one lower than the other and of the opposite color, false otherwise
+	 */
+	public static boolean canStack(Card card, Card below) {
+		return CAN_STACK[card.ordinal * Card.NUMBER_OF_CARDS + below.ordinal];
+	}
+	
+	/**
+	 * finds which foundation a card is built on
+	 * 
+	 * @param card The card
+	 * @return the index of the foundation for the card's suit
+	 */
+	public static int foundationIndex(Card card) {
+		return FOUNDATION_INDEX[card.ordinal];
+	}
+}
@@ -9,6 +9,21 @@ public abstract class SolitairePile {
 	 */
 	public abstract boolean isEmpty();
 	
+	/**
+	 * finds the version of the pile, which changes every time the pile changes, so a rendering of the
+	 * pile only needs to be redone when its version is different
+	 * 
+	 * @return the version
+	 */
+	public abstract int version();
+	
+	/**
+	 * appends the text shown for the pile, which is the same as toString, without changing the pile
+	 * 
+	 * @param out The builder to append to
+	 */
+	public abstract void appendTo(StringBuilder out);
+	
 	/**
 	 * checks if the pile is empty
 	 * 
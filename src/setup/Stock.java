@@ -1,33 +1,126 @@
 package setup;
 
-import java.util.Stack;
-
-public class Stock extends SolitairePile {
-	private Stack<Card> cards;
-	private final Waste associatedWastePile;
+/**
+ * Stock is the pile of cards that are turned over onto the waste pile
+ * 
+ * How many cards are turned over at a time depends on the variant being played, and each draw size has
+ * its own subclass, so a game only ever runs one version of drawCards. The limit on the number of passes
+ * through the stock is only checked when the waste is moved back to the stock.
+ * @author Yael Goldin
+ */
+public abstract class Stock extends SolitairePile {
+	final CardStack cards;
+	final Waste associatedWastePile;
+	private final Variant variant;
+	private int recycles;
+	
+	//initializes a stock of the given variant holding the given cards
+	Stock(Variant variant, CardStack cards, Waste associatedWaste, int recycles) {
+		this.variant = variant;
+		this.cards = cards;
+		associatedWastePile = associatedWaste;
+		this.recycles = recycles;
+	}
 	
 	/**
 	 * initializes a stock pile
 	 * 
-	 * @param cardDeck The deck with the cards that will randomly ordered in the stock
+	 * @param variant The variant being played
+	 * @param cardDeck The deck with the remaining cards, which are placed in the stock in the order they are dealt
 	 * @param associatedWaste The waste pile where all discarded cards from the stock will be placed
+	 * @return the stock
+	 * @throws IllegalArgumentException if the variant is null
 	 */
-	public Stock(Deck cardDeck, Waste associatedWaste) {
-		cards = new Stack<>();
+	public static Stock of(Variant variant, Deck cardDeck, Waste associatedWaste) {
+		CardStack cards = new CardStack();
 		while(!cardDeck.isEmpty()) {
-			cards.push(cardDeck.removeRandomCard());
+			cards.push(cardDeck.dealCard());
 		}
-		associatedWastePile = associatedWaste;
+		return of(variant, cards, associatedWaste, 0);
+	}
+	
+	/**
+	 * initializes a stock pile holding exactly the given cards
+	 * 
+	 * @param variant The variant being played
+	 * @param stockCards The cards in the stock, from the bottom of the pile to the top
+	 * @param associatedWaste The waste pile where all discarded cards from the stock will be placed
+	 * @param recycles The number of times the waste has already been moved back to the stock
+	 * @return the stock
+	 * @throws IllegalArgumentException if the variant is null, any of the cards are null, or the
+	 * 		number of recycles is negative or not allowed by the variant
+	 */
+	public static Stock of(Variant variant, Card[] stockCards, Waste associatedWaste, int recycles) {
+		CardStack cards = new CardStack();
+		for(Card card : stockCards) {
+			Card.checkNullCard(card);
+			cards.push(card);
+		}
+		return of(variant, cards, associatedWaste, recycles);
+	}
+	
+	//creates the stock subclass for the variant's draw size
+	private static Stock of(Variant variant, CardStack cards, Waste associatedWaste, int recycles) {
+		if(variant == null) {
+			throw new IllegalArgumentException("null variant");
+		} else if(recycles < 0 || recycles >= variant.maxPasses) {
+			throw new IllegalArgumentException("invalid number of recycles");
+		}
+		if(variant.cardsPerDraw == 1) {
+			return new DrawOneStock(variant, cards, associatedWaste, recycles);
+		}
+		return new DrawThreeStock(variant, cards, associatedWaste, recycles);
 	}
 	
 	/**
-	 * removes the first card from the stock and adds it to the associated waste pile
+	 * finds the number of cards the next draw will turn over
+	 * 
+	 * @return the number of cards, which is 0 if the stock is empty
+	 */
+	public abstract int nextDrawSize();
+	
+	/**
+	 * turns over the next nextDrawSize cards of the stock onto the associated waste pile, one at a time
 	 * 
 	 * @throws IllegalStateException if the stock is empty
 	 */
-	public void removeTopCard() {
-		exceptionIfEmpty();
-		associatedWastePile.addCard(cards.pop());
+	public abstract void drawCards();
+	
+	/**
+	 * undoes drawCards by moving the given number of cards from the top of the associated waste pile back
+	 * onto the stock
+	 * 
+	 * @param count The number of cards the draw turned over
+	 * @throws IllegalStateException if the associated waste pile has fewer cards
+	 */
+	public abstract void returnDrawnCards(int count);
+	
+	/**
+	 * finds the variant the stock is played with
+	 * 
+	 * @return the variant
+	 */
+	public Variant variant() {
+		return variant;
+	}
+	
+	/**
+	 * finds the number of times the waste has been moved back to the stock
+	 * 
+	 * @return the number of recycles
+	 */
+	public int recycles() {
+		return recycles;
+	}
+	
+	/**
+	 * checks if the waste can be moved back to the stock, which needs an empty stock, cards in the waste
+	 * and a pass left in the variant
+	 * 
+	 * @return true if it can, false otherwise
+	 */
+	public boolean canRecycle() {
+		return cards.isEmpty() && !associatedWastePile.isEmpty() && recycles < variant.maxPasses - 1;
 	}
 	
 	/**
@@ -35,17 +128,51 @@ public class Stock extends SolitairePile {
 	 * 
 	 * @throws IllegalStateException if the stock is not empty
 	 * @throws IllegalStateException if the associated waste pile is empty
+	 * @throws IllegalStateException if the variant allows no more passes through the stock
 	 */
 	public void moveCardsFromWaste() {
 		if(!isEmpty()) {
 			throw new IllegalStateException("cannot move cards onto stock unless it's empty");
 		} else if(associatedWastePile.isEmpty()) {
 			throw new IllegalStateException("waste pile is empty");
+		} else if(recycles >= variant.maxPasses - 1) {
+			throw new IllegalStateException("no passes through the stock left");
 		}
 		
-		while(!associatedWastePile.isEmpty()) {
-			cards.push(associatedWastePile.removeTopCard());
+		associatedWastePile.cardStack().moveAllReversedTo(cards);
+		recycles++;
+	}
+	
+	/**
+	 * undoes moveCardsFromWaste by moving all of the stock's cards back onto the associated waste pile
+	 * 
+	 * @throws IllegalStateException if the associated waste pile is not empty
+	 */
+	public void returnCardsToWaste() {
+		if(!associatedWastePile.isEmpty()) {
+			throw new IllegalStateException("cannot move cards onto waste pile unless it's empty");
 		}
+		cards.moveAllReversedTo(associatedWastePile.cardStack());
+		recycles--;
+	}
+	
+	/**
+	 * finds the number of cards in the stock
+	 * 
+	 * @return the number of cards
+	 */
+	public int size() {
+		return cards.size();
+	}
+	
+	/**
+	 * looks at the card at the given position without removing it
+	 * 
+	 * @param index The position of the card, where 0 is the bottom of the stock
+	 * @return the card at that position
+	 */
+	public Card cardAt(int index) {
+		return cards.get(index);
 	}
 	
 	@Override
@@ -53,11 +180,20 @@ public class Stock extends SolitairePile {
 		return cards.isEmpty();
 	}
 	
+	@Override
+	public int version() {
+		return cards.version();
+	}
+	
+	@Override
+	public void appendTo(StringBuilder out) {
+		out.append(isEmpty() ? "empty" : "has cards");
+	}
+	
 	@Override
 	public String toString() {
-		if(isEmpty()) {
-			return "empty";
-		}
-		return "has cards";
+		StringBuilder result = new StringBuilder();
+		appendTo(result);
+		return result.toString();
 	}
 }
@@ -1,9 +1,7 @@
 package setup;
 
-import java.util.Stack;
-
 public class TableauPile extends SolitairePile {
-	private Stack<Card> cards;
+	private final CardStack cards;
 	private int visibleCards;
 	
 	/**
@@ -20,13 +18,34 @@ public class TableauPile extends SolitairePile {
 		} else if(initialCardsNum < 1) {
 			throw new IllegalArgumentException("need at least one card to start");
 		}
-		cards = new Stack<>();
+		cards = new CardStack();
 		for(int i = 0; i < initialCardsNum; i++) {
-			cards.push(deck.removeRandomCard());
+			cards.push(deck.dealCard());
 		}
 		visibleCards = 1;
 	}
 	
+	/**
+	 * sets up a tableau pile holding exactly the given cards
+	 * 
+	 * @param pileCards The cards in the pile, from the bottom of the pile to the top
+	 * @param visibleCards How many of the top cards are visible
+	 * @throws IllegalArgumentException if any of the cards are null
+	 * @throws IllegalArgumentException if visibleCards is more than the number of cards, or if it is less
+	 * than 1 for a non-empty pile
+	 */
+	public TableauPile(Card[] pileCards, int visibleCards) {
+		if(visibleCards > pileCards.length || visibleCards < 0 || (visibleCards == 0 && pileCards.length > 0)) {
+			throw new IllegalArgumentException("invalid number of visible cards");
+		}
+		cards = new CardStack();
+		for(Card card : pileCards) {
+			Card.checkNullCard(card);
+			cards.push(card);
+		}
+		this.visibleCards = visibleCards;
+	}
+	
 	/**
 	 * adds a visible card to the top of the pile
 	 * 
@@ -39,7 +58,7 @@ public class TableauPile extends SolitairePile {
 		if(!canAddToPile(newCard)) {
 			throw new IllegalArgumentException("cannot add card to pile");
 		}
-		cards.add(newCard);
+		cards.push(newCard);
 		visibleCards++;
 	}
 	
@@ -59,15 +78,11 @@ public class TableauPile extends SolitairePile {
 		} else if(numberOfCards < 1) {
 			throw new IllegalArgumentException("have to move at least one card");
 		}
-		Stack<Card> temp = new Stack<>();
-		for(int i = 0; i < numberOfCards; i++) {
-			temp.add(otherPile.cards.pop());
-		}
-		if(!canAddToPile(temp.peek())) { //put them back
-			moveAllFromStack(temp, otherPile.cards);
+		Card bottomMovedCard = otherPile.cards.get(otherPile.cards.size() - numberOfCards);
+		if(!canAddToPile(bottomMovedCard)) {
 			return false;
 		} else {
-			moveAllFromStack(temp, cards);
+			otherPile.cards.moveTopCardsTo(cards, numberOfCards);
 			visibleCards += numberOfCards;
 			otherPile.visibleCards -= numberOfCards;
 			if(!otherPile.isEmpty() && otherPile.visibleCards == 0) {
@@ -77,11 +92,71 @@ public class TableauPile extends SolitairePile {
 		}
 	}
 	
-	//moves all cards from start to end
-	private void moveAllFromStack(Stack<Card> start, Stack<Card> end) {
-		while(!start.isEmpty()) {
-			end.push(start.pop());
+	/**
+	 * finds how many of this pile's visible cards can be moved onto the other pile in one move
+	 * the visible cards always form a run, so the only card that can start the move is found directly
+	 * from the other pile's top card: a King if the other pile is empty, otherwise the card one lower
+	 * 
+	 * @param otherPile The pile the cards would be moved to
+	 * @return the number of cards to move, or 0 if none of the visible cards can be moved there
+	 */
+	public int numCardsMovableTo(TableauPile otherPile) {
+		if(visibleCards == 0) {
+			return 0;
+		}
+		int numberOfCards;
+		if(otherPile.isEmpty()) {
+			numberOfCards = visibleCards;
+		} else {
+			numberOfCards = otherPile.cards.peek().value - cards.peek().value;
+			if(numberOfCards < 1 || numberOfCards > visibleCards) {
+				return 0;
+			}
+		}
+		return otherPile.canAddToPile(cards.get(cards.size() - numberOfCards)) ? numberOfCards : 0;
+	}
+	
+	/**
+	 * removes the top card of the pile, undoing addVisibleCard
+	 * the card below it stays visible, even if it was hidden before addVisibleCard was called
+	 * 
+	 * @return the removed card
+	 * @throws IllegalStateException if this is empty
+	 */
+	public Card removeTopVisibleCard() {
+		exceptionIfEmpty();
+		visibleCards--;
+		return cards.pop();
+	}
+	
+	/**
+	 * puts back a card that was moved off the top of the pile, undoing moveTopCard
+	 * 
+	 * @param card The card to put back on top of the pile
+	 * @param previousVisibleCards The number of visible cards the pile had before the card was moved
+	 * @throws IllegalArgumentException if the card is null
+	 */
+	public void restoreTopCard(Card card, int previousVisibleCards) {
+		Card.checkNullCard(card);
+		cards.push(card);
+		visibleCards = previousVisibleCards;
+	}
+	
+	/**
+	 * moves cards that were taken from this pile by otherPile.addStackOfCards back onto this pile
+	 * 
+	 * @param otherPile The pile the cards were moved to
+	 * @param numberOfCards The number of cards that were moved
+	 * @param previousVisibleCards The number of visible cards this pile had before the cards were moved
+	 * @throws IllegalArgumentException if the other pile is null or does not have enough visible cards
+	 */
+	public void returnStackOfCards(TableauPile otherPile, int numberOfCards, int previousVisibleCards) {
+		if(otherPile == null || otherPile.visibleCards < numberOfCards) {
+			throw new IllegalArgumentException("other pile not valid");
 		}
+		otherPile.cards.moveTopCardsTo(cards, numberOfCards);
+		otherPile.visibleCards -= numberOfCards;
+		visibleCards = previousVisibleCards;
 	}
 	
 	/**
@@ -96,8 +171,7 @@ public class TableauPile extends SolitairePile {
 		if(isEmpty()) {
 			return newCard.value == Card.LARGEST_VALUE;
 		} else {
-			Card topCard = cards.peek();
-			return topCard.isOtherColor(newCard) && newCard.value == topCard.value - 1;
+			return Rules.canStack(newCard, cards.peek());
 		}
 	}
 	
@@ -164,27 +238,53 @@ public class TableauPile extends SolitairePile {
 		return cards.size() - visibleCards;
 	}
 	
+	/**
+	 * finds the number of cards in the pile, both hidden and visible
+	 * 
+	 * @return the number of cards
+	 */
+	public int size() {
+		return cards.size();
+	}
+	
+	/**
+	 * looks at the card at the given position without removing it
+	 * 
+	 * @param index The position of the card, where 0 is the bottom of the pile
+	 * @return the card at that position
+	 */
+	public Card cardAt(int index) {
+		return cards.get(index);
+	}
+	
 	@Override
-	public String toString() {
-		if(isEmpty() || numHiddenCards() == 0) {
-			return cards.toString();
-		}
-		Card topVisible = cards.pop();
-		String result = topVisible.toString();
-		Stack<Card> temp = new Stack<>();
-		temp.push(topVisible);
-		for(int i = 1; i < visibleCards; i++) {
-			Card visible = cards.pop();
-			result = visible.toString() + ", " + result;
-			temp.add(visible);
+	public int version() {
+		return cards.version();
+	}
+	
+	@Override
+	public void appendTo(StringBuilder out) {
+		if(numHiddenCards() == 0) {
+			cards.appendTo(out);
+			return;
 		}
-		String hidden = "";
-		for(int i = 0; i < cards.size(); i++) {
-			hidden += "??, ";
+		out.append('[');
+		for(int i = 0; i < numHiddenCards(); i++) {
+			out.append("??, ");
 		}
-		while(!temp.isEmpty()) {
-			cards.push(temp.pop());
+		for(int i = numHiddenCards(); i < cards.size(); i++) {
+			if(i > numHiddenCards()) {
+				out.append(", ");
+			}
+			out.append(cards.get(i));
 		}
-		return "[" + hidden + result + "]";
+		out.append(']');
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder();
+		appendTo(result);
+		return result.toString();
 	}
 }
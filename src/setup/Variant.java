@@ -0,0 +1,47 @@
+package setup;
+
+/**
+ * Variant is one of the ways of playing solitaire, which differ in how many cards are turned over from
+ * the stock at a time and how many times the player may go through the stock
+ * @author Yael Goldin
+ */
+public enum Variant {
+	/** one card at a time, with no limit on going through the stock (the default) */
+	DRAW_ONE(1, Variant.UNLIMITED_PASSES, "Draw one"),
+	/** three cards at a time, with no limit on going through the stock */
+	DRAW_THREE(3, Variant.UNLIMITED_PASSES, "Draw three"),
+	/** one card at a time, going through the stock only once */
+	DRAW_ONE_SINGLE_PASS(1, 1, "Draw one, one pass"),
+	/** three cards at a time, going through the stock at most three times */
+	DRAW_THREE_THREE_PASSES(3, 3, "Draw three, three passes");
+	
+	/**
+	 * the number of passes of a variant without a limit
+	 */
+	public static final int UNLIMITED_PASSES = Integer.MAX_VALUE;
+	
+	public final int cardsPerDraw;
+	public final int maxPasses;
+	private final String description;
+	
+	//initializes the variant
+	private Variant(int cardsPerDraw, int maxPasses, String description) {
+		this.cardsPerDraw = cardsPerDraw;
+		this.maxPasses = maxPasses;
+		this.description = description;
+	}
+	
+	/**
+	 * checks if the variant limits the number of passes through the stock
+	 * 
+	 * @return true if it does, false otherwise
+	 */
+	public boolean hasPassLimit() {
+		return maxPasses != UNLIMITED_PASSES;
+	}
+	
+	@Override
+	public String toString() {
+		return description;
+	}
+}
@@ -1,19 +1,17 @@
 package setup;
 
-import java.util.Stack;
-
 /**
  * Waste represents the waste pile of cards from the stock pile
  * @author Yael Goldin
  */
 public class Waste extends SolitairePile {
-	private Stack<Card> cards;
+	private final CardStack cards;
 	
 	/**
 	 * initializes an empty waste pile
 	 */
 	public Waste() {
-		cards = new Stack<>();
+		cards = new CardStack();
 	}
 	
 	/**
@@ -77,16 +75,53 @@ public class Waste extends SolitairePile {
 		foundation.addCard(cards.pop());
 	}
 	
+	/**
+	 * finds the number of cards in the waste pile
+	 * 
+	 * @return the number of cards
+	 */
+	public int size() {
+		return cards.size();
+	}
+	
+	/**
+	 * looks at the card at the given position without removing it
+	 * 
+	 * @param index The position of the card, where 0 is the bottom of the waste pile
+	 * @return the card at that position
+	 */
+	public Card cardAt(int index) {
+		return cards.get(index);
+	}
+	
+	//the cards in the waste pile, for moving them back to the stock all at once
+	CardStack cardStack() {
+		return cards;
+	}
+	
 	@Override
 	public boolean isEmpty() {
 		return cards.isEmpty();
 	}
 	
 	@Override
-	public String toString() {
+	public int version() {
+		return cards.version();
+	}
+	
+	@Override
+	public void appendTo(StringBuilder out) {
 		if(!isEmpty()) {
-			return cards.peek().toString();
+			out.append(cards.peek());
+		} else {
+			out.append("empty");
 		}
-		return "empty";
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder();
+		appendTo(result);
+		return result.toString();
 	}
 }
@@ -0,0 +1,82 @@
+package simulation;
+
+import gameplay.GameView;
+import gameplay.Move;
+import gameplay.MoveBuffer;
+
+/**
+ * GreedyStrategy plays the move that makes the most obvious progress every turn
+ * 
+ * In order of preference it reveals hidden tableau cards, plays to the foundations, plays the waste to
+ * the tableau, and then turns the stock. Moves that only shuffle cards between piles are never played,
+ * so every game ends: the strategy resigns when it would recycle the waste without having made any
+ * other move since the last recycle.
+ * @author Yael Goldin
+ */
+public class GreedyStrategy implements Strategy {
+	private static final int REVEAL_SCORE = 100;
+	private static final int FOUNDATION_SCORE = 90;
+	private static final int WASTE_TO_TABLEAU_SCORE = 60;
+	private static final int STOCK_TO_WASTE_SCORE = 10;
+	private static final int WASTE_TO_STOCK_SCORE = 5;
+	
+	private boolean progressSinceRecycle;
+	
+	@Override
+	public void newGame(long seed) {
+		progressSinceRecycle = true;
+	}
+	
+	@Override
+	public int chooseMove(GameView view, MoveBuffer legalMoves) {
+		int bestMove = RESIGN;
+		int bestScore = 0;
+		for(int i = 0; i < legalMoves.size(); i++) {
+			int move = legalMoves.get(i);
+			int score = score(view, move);
+			if(score > bestScore) {
+				bestScore = score;
+				bestMove = move;
+			}
+		}
+		if(bestMove == RESIGN) {
+			return RESIGN;
+		}
+		int type = Move.type(bestMove);
+		if(type == Move.WASTE_TO_STOCK) {
+			if(!progressSinceRecycle) {
+				return RESIGN;
+			}
+			progressSinceRecycle = false;
+		} else if(type != Move.STOCK_TO_WASTE) {
+			progressSinceRecycle = true;
+		}
+		return bestMove;
+	}
+	
+	//scores a move, where 0 means it should never be played
+	private static int score(GameView view, int move) {
+		int type = Move.type(move);
+		if(type == Move.TABLEAU_TO_FOUNDATION) {
+			return revealsCard(view, move) ? REVEAL_SCORE + view.numHiddenCards(Move.source(move))
+					: FOUNDATION_SCORE;
+		} else if(type == Move.TABLEAU_TO_TABLEAU) {
+			return revealsCard(view, move) ? REVEAL_SCORE + view.numHiddenCards(Move.source(move)) : 0;
+		} else if(type == Move.WASTE_TO_FOUNDATION) {
+			return FOUNDATION_SCORE;
+		} else if(type == Move.WASTE_TO_TABLEAU) {
+			return WASTE_TO_TABLEAU_SCORE;
+		} else if(type == Move.STOCK_TO_WASTE) {
+			return STOCK_TO_WASTE_SCORE;
+		} else if(type == Move.WASTE_TO_STOCK) {
+			return WASTE_TO_STOCK_SCORE;
+		}
+		return 0;
+	}
+	
+	//checks if the move takes every visible card off a tableau pile that has hidden cards
+	private static boolean revealsCard(GameView view, int move) {
+		int source = Move.source(move);
+		return view.numHiddenCards(source) > 0 && Move.count(move) == view.numVisibleCards(source);
+	}
+}
@@ -0,0 +1,35 @@
+package simulation;
+
+import java.util.SplittableRandom;
+
+import gameplay.GameView;
+import gameplay.MoveBuffer;
+
+/**
+ * RandomStrategy plays a uniformly random legal move every turn
+ * @author Yael Goldin
+ */
+public class RandomStrategy implements Strategy {
+	private final long seed;
+	private SplittableRandom random;
+	
+	/**
+	 * initializes the strategy
+	 * 
+	 * @param seed The seed mixed into every game's seed, so runs can be repeated
+	 */
+	public RandomStrategy(long seed) {
+		this.seed = seed;
+		random = new SplittableRandom(seed);
+	}
+	
+	@Override
+	public void newGame(long gameSeed) {
+		random = new SplittableRandom(seed ^ gameSeed);
+	}
+	
+	@Override
+	public int chooseMove(GameView view, MoveBuffer legalMoves) {
+		return legalMoves.get(random.nextInt(legalMoves.size()));
+	}
+}
@@ -0,0 +1,162 @@
+package simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import gameplay.MoveBuffer;
+import gameplay.SolitaireModel;
+
+/**
+ * Simulator plays many headless games of solitaire with a strategy, spread over a pool of threads
+ * 
+ * Usage: Simulator [gamesPerThread] [threads] [maxMovesPerGame] [firstSeed]
+ * 
+ * Every thread gets its own strategy and plays its own range of seeds, so a run with the same arguments
+ * always plays the same deals.
+ * @author Yael Goldin
+ */
+public class Simulator {
+	public static final int DEFAULT_MAX_MOVES_PER_GAME = 1000;
+	private static final int DEFAULT_GAMES_PER_THREAD = 10_000;
+	
+	private final int threads;
+	private final int maxMovesPerGame;
+	
+	/**
+	 * the totals of one simulation run
+	 */
+	public static final class Report {
+		public final String strategyName;
+		public final long games;
+		public final long wins;
+		public final long moves;
+		public final long elapsedNanos;
+		
+		//initializes the report
+		private Report(String strategyName, long games, long wins, long moves, long elapsedNanos) {
+			this.strategyName = strategyName;
+			this.games = games;
+			this.wins = wins;
+			this.moves = moves;
+			this.elapsedNanos = elapsedNanos;
+		}
+		
+		/**
+		 * finds how fast the games were played
+		 * 
+		 * @return the number of games finished per second of wall-clock time
+		 */
+		public double gamesPerSecond() {
+			return games / (elapsedNanos / 1e9);
+		}
+		
+		/**
+		 * finds how often the strategy won
+		 * 
+		 * @return the fraction of games won, from 0 to 1
+		 */
+		public double winRate() {
+			return games == 0 ? 0 : (double) wins / games;
+		}
+		
+		@Override
+		public String toString() {
+			return String.format("%s: %d games, %.2f%% won, %.1f moves/game, %.0f games/s", strategyName, games,
+					winRate() * 100, games == 0 ? 0.0 : (double) moves / games, gamesPerSecond());
+		}
+	}
+	
+	/**
+	 * initializes a simulator
+	 * 
+	 * @param threads The number of threads to play on
+	 * @param maxMovesPerGame The most moves to make in one game before counting it as lost
+	 * @throws IllegalArgumentException if either number is not positive
+	 */
+	public Simulator(int threads, int maxMovesPerGame) {
+		if(threads < 1 || maxMovesPerGame < 1) {
+			throw new IllegalArgumentException("invalid threads/move limit");
+		}
+		this.threads = threads;
+		this.maxMovesPerGame = maxMovesPerGame;
+	}
+	
+	public static void main(String[] args) throws InterruptedException {
+		int gamesPerThread = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES_PER_THREAD;
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		int maxMoves = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MAX_MOVES_PER_GAME;
+		long firstSeed = args.length > 3 ? Long.parseLong(args[3]) : 0;
+		Simulator simulator = new Simulator(threads, maxMoves);
+		System.out.println(simulator.run("random", () -> new RandomStrategy(firstSeed), firstSeed, gamesPerThread));
+		System.out.println(simulator.run("greedy", GreedyStrategy::new, firstSeed, gamesPerThread));
+	}
+	
+	/**
+	 * plays gamesPerThread games on every thread, with the seeds [firstSeed, firstSeed + threads * gamesPerThread)
+	 * 
+	 * @param strategyName The name to put in the report
+	 * @param strategies Creates the strategy for each thread
+	 * @param firstSeed The seed of the first game
+	 * @param gamesPerThread The number of games each thread plays
+	 * @return the totals of every game played
+	 * @throws IllegalArgumentException if the strategy supplier is null or gamesPerThread is negative
+	 * @throws InterruptedException if the thread is interrupted while waiting for the games
+	 */
+	public Report run(String strategyName, Supplier<? extends Strategy> strategies, long firstSeed,
+			int gamesPerThread) throws InterruptedException {
+		if(strategies == null || gamesPerThread < 0) {
+			throw new IllegalArgumentException("invalid strategy/game count");
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List<Future<long[]>> results = new ArrayList<>(threads);
+		long startTime = System.nanoTime();
+		long wins = 0;
+		long moves = 0;
+		try {
+			for(int t = 0; t < threads; t++) {
+				long threadSeed = firstSeed + (long) t * gamesPerThread;
+				results.add(pool.submit(() -> playGames(strategies.get(), threadSeed, gamesPerThread)));
+			}
+			for(Future<long[]> result : results) {
+				long[] totals = result.get();
+				wins += totals[0];
+				moves += totals[1];
+			}
+		} catch(ExecutionException e) {
+			throw new IllegalStateException("a simulation thread failed", e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+		return new Report(strategyName, (long) threads * gamesPerThread, wins, moves, System.nanoTime() - startTime);
+	}
+	
+	//plays one thread's games, returning the number won and the total moves made
+	private long[] playGames(Strategy strategy, long firstSeed, int games) {
+		MoveBuffer legalMoves = new MoveBuffer();
+		long wins = 0;
+		long moves = 0;
+		for(long seed = firstSeed; seed < firstSeed + games; seed++) {
+			SolitaireModel model = new SolitaireModel(seed);
+			strategy.newGame(seed);
+			int movesMade = 0;
+			while(movesMade < maxMovesPerGame && model.generateMoves(legalMoves) > 0) {
+				int move = strategy.chooseMove(model, legalMoves);
+				if(move == Strategy.RESIGN) {
+					break;
+				}
+				model.apply(move);
+				movesMade++;
+			}
+			if(model.gameOver()) {
+				wins++;
+			}
+			moves += movesMade;
+		}
+		return new long[] {wins, moves};
+	}
+}
@@ -0,0 +1,35 @@
+package simulation;
+
+import gameplay.GameView;
+import gameplay.MoveBuffer;
+
+/**
+ * Strategy chooses the moves of a headless game of solitaire
+ * 
+ * A strategy is used by one thread at a time, so it may keep state between moves of the same game.
+ * @author Yael Goldin
+ */
+public interface Strategy {
+	/**
+	 * returned by chooseMove to give up on the game
+	 */
+	int RESIGN = -1;
+	
+	/**
+	 * called before the first move of every game
+	 * 
+	 * @param seed The seed of the deal about to be played
+	 */
+	default void newGame(long seed) {
+	}
+	
+	/**
+	 * chooses the next move to make
+	 * this is called on the simulator's hot path, so it should not allocate or throw
+	 * 
+	 * @param view The game being played
+	 * @param legalMoves Every legal move in the current position, which is never empty
+	 * @return one of the encoded moves in legalMoves, or RESIGN
+	 */
+	int chooseMove(GameView view, MoveBuffer legalMoves);
+}
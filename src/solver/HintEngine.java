@@ -0,0 +1,238 @@
+package solver;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import gameplay.*;
+
+/**
+ * HintEngine suggests a move for a player, using only the cards the player can see
+ * 
+ * The hidden tableau cards are unknown to the player, and so is the order of the stock. In draw one the
+ * player has seen every stock card in order once the waste is first turned back over; in draw three only
+ * every third card was ever on top of the waste, so the stock stays unknown. The engine deals the unknown cards out at random many times over and solves
+ * each of those deals with a small search. The move that starts a win in the most of them is the hint.
+ * It keeps dealing until its time budget runs out, so a longer budget gives a better hint. If none of the
+ * deals could be won in time, the hint is the legal move that looks best from the visible cards alone, so
+ * it never depends on the real order of the stock. Every hint is cached by
+ * position, so asking again without moving is immediate, and no sample solve runs past the budget.
+ * An engine can be shared by any number of threads.
+ * @author Yael Goldin
+ */
+public final class HintEngine implements HintSource {
+	public static final Duration DEFAULT_BUDGET = HintSource.DEFAULT_BUDGET;
+	
+	/**
+	 * returned by hint when there are no legal moves
+	 */
+	public static final int NO_HINT = HintSource.NO_HINT;
+	
+	private static final int DEFAULT_CACHE_SIZE_POWER_OF_TWO = 16;
+	private static final int SAMPLE_NODE_LIMIT = 4000;
+	private static final long SAMPLE_TIME_LIMIT_MILLIS = 1000;
+	//the result a hint is cached with when none of the deals were won and it was picked from the visible cards
+	private static final int FALLBACK = TranspositionTable.RESULT_LOSS;
+	private static final int SAMPLE_TABLE_SIZE_POWER_OF_TWO = 16;
+	//mixed into the cache key once the stock has been seen, since the same position can then have a better hint
+	private static final long STOCK_SEEN_KEY = 0x9E3779B97F4A7C15L;
+	
+	private final TranspositionTable cache;
+	private final ConcurrentLinkedQueue<KlondikeSolver> idleSolvers;
+	
+	/**
+	 * initializes an engine that caches the hints of up to 2^16 positions
+	 */
+	public HintEngine() {
+		this(DEFAULT_CACHE_SIZE_POWER_OF_TWO);
+	}
+	
+	/**
+	 * initializes an engine
+	 * 
+	 * @param cacheSizePowerOfTwo The cache holds the hints of up to 2^cacheSizePowerOfTwo positions
+	 * @throws IllegalArgumentException if the cache size is invalid
+	 */
+	public HintEngine(int cacheSizePowerOfTwo) {
+		cache = new TranspositionTable(cacheSizePowerOfTwo, TranspositionTable.ReplacementPolicy.ALWAYS_REPLACE);
+		idleSolvers = new ConcurrentLinkedQueue<>();
+	}
+	
+	/**
+	 * finds the best move in the current position that can be found within the time budget
+	 * the model is not changed
+	 * 
+	 * @param model The game to find a move for
+	 * @param budget How long to search for, unless the hint is already cached
+	 * @return one of the encoded moves (see Move) generated for the position, or NO_HINT if there are none
+	 * @throws IllegalArgumentException if the model or budget is null
+	 */
+	@Override
+	public int hint(SolitaireModel model, Duration budget) {
+		if(model == null || budget == null) {
+			throw new IllegalArgumentException("null model/budget");
+		}
+		long deadline = System.nanoTime() + budget.toNanos();
+		MoveBuffer legalMoves = new MoveBuffer();
+		if(model.generateMoves(legalMoves) == 0) {
+			return NO_HINT;
+		}
+		boolean stockSeen = stockSeen(model);
+		long hash = stockSeen ? model.positionHash() ^ STOCK_SEEN_KEY : model.positionHash();
+		long cached = cache.probe(hash);
+		int cachedResult = TranspositionTable.result(cached);
+		if(cachedResult == TranspositionTable.RESULT_WIN || cachedResult == FALLBACK) {
+			return TranspositionTable.bestMove(cached);
+		}
+		KlondikeSolver solver = idleSolvers.poll();
+		if(solver == null) {
+			solver = new KlondikeSolver(SAMPLE_NODE_LIMIT, SAMPLE_TIME_LIMIT_MILLIS, SAMPLE_TABLE_SIZE_POWER_OF_TWO);
+		}
+		try {
+			int hint = legalMoves.size() == 1 ? legalMoves.get(0) : search(model, stockSeen, legalMoves, solver, deadline);
+			int result = TranspositionTable.RESULT_WIN;
+			if(hint == NO_HINT) {
+				hint = fallbackMove(model, legalMoves);
+				result = FALLBACK;
+			}
+			cache.store(hash, 0, result, hint);
+			return hint;
+		} finally {
+			idleSolvers.add(solver);
+		}
+	}
+	
+	//solves random deals of the unseen cards until the deadline, returning the move that won the most,
+	//or NO_HINT if none of the deals were won
+	private static int search(SolitaireModel model, boolean stockSeen, MoveBuffer legalMoves, KlondikeSolver solver,
+			long deadline) {
+		byte[] position = PackedSolitaireState.of(model).toByteArray();
+		int[] unseen = unseenCardIndexes(model, stockSeen);
+		byte[] sample = new byte[position.length];
+		SplittableRandom random = new SplittableRandom(model.positionHash());
+		int[] wins = new int[legalMoves.size()];
+		int bestIndex = -1;
+		do {
+			System.arraycopy(position, 0, sample, 0, position.length);
+			for(int i = unseen.length - 1; i > 0; i--) {
+				int j = random.nextInt(i + 1);
+				byte card = sample[unseen[i]];
+				sample[unseen[i]] = sample[unseen[j]];
+				sample[unseen[j]] = card;
+			}
+			SolveResult result = solver.solve(PackedSolitaireState.fromBytes(sample, 0).toModel(),
+					deadline - System.nanoTime());
+			if(result.outcome == SolveResult.Outcome.WIN) {
+				int firstMove = firstMove(result.winningMoves(), legalMoves);
+				for(int i = 0; i < wins.length; i++) {
+					if(legalMoves.get(i) == firstMove) {
+						wins[i]++;
+						if(bestIndex < 0 || wins[i] > wins[bestIndex]) {
+							bestIndex = i;
+						}
+					}
+				}
+			}
+		} while(unseen.length > 1 && System.nanoTime() < deadline);
+		return bestIndex < 0 ? NO_HINT : legalMoves.get(bestIndex);
+	}
+	
+	//the first move of a winning line, except that when the line turns over stock cards before a move that
+	//does not involve the waste and is already legal, that move is played first since it does not depend on
+	//the stock cards, which were only guessed
+	private static int firstMove(int[] winningLine, MoveBuffer legalMoves) {
+		for(int move : winningLine) {
+			int type = Move.type(move);
+			if(type == Move.WASTE_TO_FOUNDATION || type == Move.WASTE_TO_TABLEAU) {
+				break;
+			} else if(type != Move.STOCK_TO_WASTE && type != Move.WASTE_TO_STOCK) {
+				for(int i = 0; i < legalMoves.size(); i++) {
+					if(legalMoves.get(i) == move) {
+						return move;
+					}
+				}
+				break;
+			}
+		}
+		return winningLine[0];
+	}
+	
+	//whether the player has seen the order of the stock, which is once the waste has been turned back over
+	//in a draw one game
+	private static boolean stockSeen(SolitaireModel model) {
+		if(model.variant().cardsPerDraw != 1) {
+			return false;
+		}
+		for(int i = 0; i < model.movesMade(); i++) {
+			if(Move.type(model.moveAt(i)) == Move.WASTE_TO_STOCK) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	//the positions in a packed state of the cards the player has not seen: the hidden tableau cards,
+	//and the stock unless it has been seen
+	private static int[] unseenCardIndexes(SolitaireModel model, boolean stockSeen) {
+		int count = stockSeen ? 0 : model.stockSize();
+		for(int t = 0; t < SolitaireModel.TABLEAU_SIZE; t++) {
+			count += model.numHiddenCards(t);
+		}
+		int[] indexes = new int[count];
+		int next = 0;
+		if(!stockSeen) {
+			for(int i = 0; i < model.stockSize(); i++) {
+				indexes[next++] = i;
+			}
+		}
+		int pileStart = model.stockSize() + model.wasteSize();
+		for(int t = 0; t < SolitaireModel.TABLEAU_SIZE; t++) {
+			for(int i = 0; i < model.numHiddenCards(t); i++) {
+				indexes[next++] = pileStart + i;
+			}
+			pileStart += model.numHiddenCards(t) + model.numVisibleCards(t);
+		}
+		return indexes;
+	}
+	
+	//the legal move that looks best from the cards the player can see, the first of them if several tie
+	private static int fallbackMove(SolitaireModel model, MoveBuffer legalMoves) {
+		int best = legalMoves.get(0);
+		int bestScore = visibleScore(model, best);
+		for(int i = 1; i < legalMoves.size(); i++) {
+			int score = visibleScore(model, legalMoves.get(i));
+			if(score > bestScore) {
+				best = legalMoves.get(i);
+				bestScore = score;
+			}
+		}
+		return best;
+	}
+	
+	//how promising a move looks without knowing the hidden cards or the order of the stock: building the
+	//foundations and turning over hidden cards first, then bringing new cards into play
+	private static int visibleScore(SolitaireModel model, int move) {
+		int type = Move.type(move);
+		if(model.isSafeFoundationMove(move)) {
+			return 100;
+		} else if(type == Move.WASTE_TO_FOUNDATION || type == Move.TABLEAU_TO_FOUNDATION) {
+			return 90;
+		} else if(type == Move.TABLEAU_TO_TABLEAU) {
+			int source = Move.source(move);
+			int hidden = model.numHiddenCards(source);
+			if(Move.count(move) < model.numVisibleCards(source)) {
+				return 20;
+			} else if(hidden > 0) {
+				return 80 + hidden;
+			}
+			return model.tableauPileIsEmpty(Move.dest(move)) ? 0 : 50;
+		} else if(type == Move.WASTE_TO_TABLEAU) {
+			return 60;
+		} else if(type == Move.STOCK_TO_WASTE) {
+			return 40;
+		} else if(type == Move.WASTE_TO_STOCK) {
+			return 30;
+		}
+		return 10;
+	}
+}
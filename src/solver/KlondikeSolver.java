@@ -0,0 +1,559 @@
+package solver;
+
+import java.util.Arrays;
+
+import jdk.jfr.EventType;
+
+import gameplay.*;
+import metrics.SolveEvent;
+import setup.Card;
+import setup.Deck;
+import setup.Rules;
+import setup.Variant;
+
+/**
+ * KlondikeSolver finds out whether a solitaire position can be won, assuming every card is known
+ * (the "thoughtful" variant), with a depth-first search over SolitaireModel.apply and undo
+ * 
+ * Turning over stock cards is only useful to play the card that ends up on the waste, so the solver
+ * never turns stock cards on their own: each playable stock card is one move that turns over (and
+ * recycles) as many cards as needed and then plays it. Only the first empty tableau pile is ever filled,
+ * since empty piles are interchangeable. The other moves are tried in order of how promising they are.
+ * Positions are kept in a transposition table, so a position that has already been searched is not
+ * searched again, and a position that is already on the current path ends that branch.
+ * 
+ * Two cuts are heuristic: a card that can go to its foundation without ever being needed on the tableau
+ * again is played as the only move, and part of a run is only moved off a card that can then go to its
+ * foundation. A LOSS is only reported when neither cut was made, so it is a proof that the position
+ * cannot be won; otherwise a failed search is UNKNOWN. A position whose search was cut short by a
+ * repeat of a position higher up the path is never stored as lost, since it may be winnable when it is
+ * reached another way.
+ * Once the stock and waste are empty and every tableau card is face up, the rest of the game is made
+ * with SolitaireModel.autocomplete instead of being searched.
+ * A solver is not thread safe, but can be reused for many positions.
+ * @author Yael Goldin
+ */
+public final class KlondikeSolver {
+	public static final long DEFAULT_NODE_LIMIT = 5_000_000;
+	public static final long DEFAULT_TIME_LIMIT_MILLIS = 10_000;
+	public static final int DEFAULT_TABLE_SIZE_POWER_OF_TWO = 20;
+	
+	private static final int MAX_DEPTH = 1000;
+	private static final int CHECK_INTERVAL = 1024;
+	private static final int TABLE_MOVE_BONUS = 1000;
+	private static final int SKIP = -1;
+	private static final int PATH_SET_SIZE = 1 << 12;
+	private static final int MAX_STOCK_CARDS = Deck.DECK_SIZE
+			- SolitaireModel.TABLEAU_SIZE * (SolitaireModel.TABLEAU_SIZE + 1) / 2;
+	//the legal moves, plus a play of every stock card to its foundation or any tableau pile
+	private static final int MAX_SOLVER_MOVES = Move.MAX_LEGAL_MOVES
+			+ MAX_STOCK_CARDS * (1 + SolitaireModel.TABLEAU_SIZE);
+	
+	//a solver move is a gameplay.Move, plus how many stock moves to make before it in the bits above it
+	private static final int MOVE_BITS = 0xFFFFF;
+	private static final int STOCK_STEPS_SHIFT = 20;
+	//only looked up when metrics are enabled, so the events are never allocated otherwise
+	private static final EventType SOLVE =
+			GameMetrics.ENABLED ? EventType.getEventType(SolveEvent.class) : null;
+	
+	private final long nodeLimit;
+	private final long timeLimitNanos;
+	private final TranspositionTable table;
+	private final MoveBuffer[] buffers;
+	private final int[] scores;
+	private int[] path;
+	private int pathLength;
+	private final long[] pathHashes;
+	private final int[] pathPlies;
+	private final boolean[] pathUsed;
+	private int cycleFloor;
+	
+	private SolitaireModel model;
+	private SearchControl control;
+	private long nodes;
+	private long nextCheck;
+	private long deadline;
+	private boolean aborted;
+	private boolean exhaustive;
+	
+	/**
+	 * initializes a solver with the default limits and a table of 2^DEFAULT_TABLE_SIZE_POWER_OF_TWO entries
+	 */
+	public KlondikeSolver() {
+		this(DEFAULT_NODE_LIMIT, DEFAULT_TIME_LIMIT_MILLIS, DEFAULT_TABLE_SIZE_POWER_OF_TWO);
+	}
+	
+	/**
+	 * initializes a solver with its own transposition table
+	 * 
+	 * @param nodeLimit The most moves to make in one solve before giving up
+	 * @param timeLimitMillis The most time to spend on one solve before giving up
+	 * @param tableSizePowerOfTwo The transposition table holds 2^tableSizePowerOfTwo entries
+	 * @throws IllegalArgumentException if a limit is not positive or the table size is invalid
+	 */
+	public KlondikeSolver(long nodeLimit, long timeLimitMillis, int tableSizePowerOfTwo) {
+		this(nodeLimit, timeLimitMillis, new TranspositionTable(tableSizePowerOfTwo,
+				TranspositionTable.ReplacementPolicy.ALWAYS_REPLACE));
+	}
+	
+	/**
+	 * initializes a solver that uses the given transposition table
+	 * 
+	 * @param nodeLimit The most moves to make in one solve before giving up
+	 * @param timeLimitMillis The most time to spend on one solve before giving up
+	 * @param table The table to store searched positions in
+	 * @throws IllegalArgumentException if a limit is not positive or the table is null
+	 */
+	KlondikeSolver(long nodeLimit, long timeLimitMillis, TranspositionTable table) {
+		if(nodeLimit < 1 || timeLimitMillis < 1 || table == null) {
+			throw new IllegalArgumentException("invalid limits/table");
+		}
+		this.nodeLimit = nodeLimit;
+		timeLimitNanos = timeLimitMillis * 1_000_000;
+		this.table = table;
+		buffers = new MoveBuffer[MAX_DEPTH];
+		scores = new int[MAX_SOLVER_MOVES];
+		path = new int[MAX_DEPTH];
+		pathHashes = new long[PATH_SET_SIZE];
+		pathPlies = new int[PATH_SET_SIZE];
+		pathUsed = new boolean[PATH_SET_SIZE];
+	}
+	
+	/**
+	 * solves the draw one deal with the given seed
+	 * 
+	 * @param seed The seed of the deal (see SolitaireModel(long))
+	 * @return the result of the solve
+	 */
+	public SolveResult solve(long seed) {
+		return solve(seed, Variant.DRAW_ONE);
+	}
+	
+	/**
+	 * solves the deal with the given seed, played as the given variant
+	 * 
+	 * @param seed The seed of the deal (see SolitaireModel(long, Variant))
+	 * @param variant The variant to play the deal as
+	 * @return the result of the solve
+	 * @throws IllegalArgumentException if the variant is null
+	 */
+	public SolveResult solve(long seed, Variant variant) {
+		SolveEvent event = beginSolveEvent();
+		return report(event, getClass(), search(new SolitaireModel(seed, variant), null, timeLimitNanos));
+	}
+	
+	/**
+	 * solves the current position of the given model, which is not changed
+	 * 
+	 * @param start The model to solve
+	 * @return the result of the solve, with winning moves that start from the model's current position
+	 * @throws IllegalArgumentException if the model is null
+	 */
+	public SolveResult solve(SolitaireModel start) {
+		SolveEvent event = beginSolveEvent();
+		return report(event, getClass(), search(PackedSolitaireState.of(start).toModel(), null, timeLimitNanos));
+	}
+	
+	/**
+	 * solves the current position of the given model, giving up early if the given time runs out first
+	 * 
+	 * @param position The model to solve, which the search is allowed to change
+	 * @param maxNanos The most time to spend, if it is less than the solver's own time limit
+	 * @return the result of the solve
+	 */
+	SolveResult solve(SolitaireModel position, long maxNanos) {
+		SolveEvent event = beginSolveEvent();
+		return report(event, getClass(), search(position, null, Math.min(timeLimitNanos, maxNanos)));
+	}
+	
+	//starts the flight recorder event of a solve, or returns null if metrics or the event are not enabled
+	static SolveEvent beginSolveEvent() {
+		if(!GameMetrics.ENABLED || !SOLVE.isEnabled()) {
+			return null;
+		}
+		SolveEvent event = new SolveEvent();
+		event.begin();
+		return event;
+	}
+	
+	//ends the flight recorder event of a solve, if one was started, committing it if a recording has enabled it
+	static SolveResult report(SolveEvent event, Class<?> solverClass, SolveResult result) {
+		if(event != null && event.shouldCommit()) {
+			event.solver = solverClass.getSimpleName();
+			event.outcome = result.outcome.name();
+			event.nodes = result.nodes;
+			event.winningMoves = result.winningMoves().length;
+			event.commit();
+		}
+		return result;
+	}
+	
+	/**
+	 * solves one subtree of a parallel solve, sharing its transposition table and limits with the
+	 * other workers
+	 * 
+	 * @param subtree The position at the root of the subtree, which the search is allowed to change
+	 * @param sharedControl The limits and stop signal of the whole solve
+	 * @return the result of searching the subtree
+	 */
+	SolveResult solveSubtree(SolitaireModel subtree, SearchControl sharedControl) {
+		return search(subtree, sharedControl, timeLimitNanos);
+	}
+	
+	/**
+	 * finds the moves the search would try first from the given position, best first
+	 * afterwards, candidatesComplete says whether a heuristic cut left any moves out
+	 * 
+	 * @param position The position to find moves for
+	 * @return the solver moves, to be made with applySolverMove
+	 */
+	int[] candidateMoves(SolitaireModel position) {
+		model = position;
+		exhaustive = true;
+		MoveBuffer moves = orderedMoves(0, SKIP);
+		int[] result = new int[moves.size()];
+		for(int i = 0; i < result.length; i++) {
+			result[i] = moves.get(i);
+		}
+		model = null;
+		return result;
+	}
+	
+	/**
+	 * checks if the last call to candidateMoves returned every move that could lead to a win
+	 * 
+	 * @return true if no heuristic cut was made, false otherwise
+	 */
+	boolean candidatesComplete() {
+		return exhaustive;
+	}
+	
+	/**
+	 * makes one of the moves found by candidateMoves, which may be several gameplay moves
+	 * 
+	 * @param position The position to make the move in
+	 * @param solverMove The move to make
+	 * @return the encoded gameplay moves that were applied to the position, in order
+	 */
+	int[] applySolverMove(SolitaireModel position, int solverMove) {
+		model = position;
+		pathLength = 0;
+		int stockSteps = solverMove >>> STOCK_STEPS_SHIFT;
+		for(int step = 0; step < stockSteps; step++) {
+			applyAndRecord(nextStockMove());
+		}
+		applyAndRecord(solverMove & MOVE_BITS);
+		model = null;
+		return Arrays.copyOf(path, pathLength);
+	}
+	
+	//searches the given model, which the search is allowed to change, stopping when the limits run out
+	private SolveResult search(SolitaireModel searchModel, SearchControl sharedControl, long timeLimitNanos) {
+		long startTime = System.nanoTime();
+		control = sharedControl;
+		if(control == null) {
+			table.newSearch();
+		}
+		model = searchModel;
+		nodes = 0;
+		nextCheck = CHECK_INTERVAL;
+		deadline = startTime + timeLimitNanos;
+		aborted = false;
+		exhaustive = true;
+		pathLength = 0;
+		cycleFloor = MAX_DEPTH;
+		Arrays.fill(pathUsed, false);
+		int[] winningMoves = new int[0];
+		SolveResult.Outcome outcome;
+		if(search(0)) {
+			winningMoves = Arrays.copyOf(path, pathLength);
+			outcome = SolveResult.Outcome.WIN;
+		} else if(aborted || !exhaustive) {
+			outcome = SolveResult.Outcome.UNKNOWN;
+		} else {
+			outcome = SolveResult.Outcome.LOSS;
+		}
+		if(control != null) {
+			control.report(nodes - (nextCheck - CHECK_INTERVAL));
+		}
+		model = null;
+		control = null;
+		return new SolveResult(outcome, winningMoves, nodes, System.nanoTime() - startTime);
+	}
+	
+	//searches the current position, leaving the winning line in path if it finds one
+	private boolean search(int ply) {
+		if(model.gameOver()) {
+			return true;
+		} else if(model.canAutocomplete()) {
+			int movesBefore = model.movesMade();
+			model.autocomplete();
+			for(int i = movesBefore; i < model.movesMade(); i++) {
+				recordMove(model.moveAt(i));
+			}
+			return true;
+		} else if(nodes >= nextCheck && limitReached()) {
+			aborted = true;
+			return false;
+		} else if(ply == MAX_DEPTH) {
+			exhaustive = false;
+			return false;
+		}
+		long hash = model.positionHash();
+		int pathPly = pathPly(hash);
+		if(pathPly >= 0) {
+			cycleFloor = Math.min(cycleFloor, pathPly);
+			return false;
+		}
+		long entry = table.probe(hash);
+		int result = TranspositionTable.result(entry);
+		if(result == TranspositionTable.RESULT_LOSS) {
+			return false;
+		}
+		int tableMove = TranspositionTable.bestMove(entry);
+		int depth = MAX_DEPTH - ply;
+		int outerCycleFloor = cycleFloor;
+		cycleFloor = MAX_DEPTH;
+		addToPath(hash, ply);
+		boolean won = searchMoves(ply, hash, depth, result == TranspositionTable.RESULT_WIN ? tableMove : SKIP);
+		removeFromPath(hash);
+		if(!won && !aborted && cycleFloor >= ply) {
+			table.store(hash, depth, TranspositionTable.RESULT_LOSS, TranspositionTable.NO_MOVE);
+		}
+		cycleFloor = Math.min(outerCycleFloor, cycleFloor);
+		return won;
+	}
+	
+	//tries every move from the current position, which is on the path at the given ply
+	private boolean searchMoves(int ply, long hash, int depth, int tableMove) {
+		MoveBuffer moves = orderedMoves(ply, tableMove);
+		for(int i = 0; i < moves.size(); i++) {
+			int move = moves.get(i);
+			int stockSteps = move >>> STOCK_STEPS_SHIFT;
+			for(int step = 0; step < stockSteps; step++) {
+				applyAndRecord(nextStockMove());
+			}
+			applyAndRecord(move & MOVE_BITS);
+			boolean won = search(ply + 1);
+			if(won) {
+				table.store(hash, depth, TranspositionTable.RESULT_WIN, move);
+				return true;
+			}
+			for(int step = 0; step <= stockSteps; step++) {
+				model.undo();
+			}
+			pathLength -= stockSteps + 1;
+			if(aborted) {
+				return false;
+			}
+		}
+		return false;
+	}
+	
+	/* ************************positions on the current path************************************ */
+	
+	//the ply at which the position is on the current path, or -1 if it isn't
+	private int pathPly(long hash) {
+		for(int i = (int) hash & (PATH_SET_SIZE - 1); pathUsed[i]; i = (i + 1) & (PATH_SET_SIZE - 1)) {
+			if(pathHashes[i] == hash) {
+				return pathPlies[i];
+			}
+		}
+		return -1;
+	}
+	
+	//adds a position to the current path
+	private void addToPath(long hash, int ply) {
+		int i = (int) hash & (PATH_SET_SIZE - 1);
+		while(pathUsed[i]) {
+			i = (i + 1) & (PATH_SET_SIZE - 1);
+		}
+		pathUsed[i] = true;
+		pathHashes[i] = hash;
+		pathPlies[i] = ply;
+	}
+	
+	//removes the position added to the path most recently, which can simply be cleared since nothing
+	//added after it is still in the set
+	private void removeFromPath(long hash) {
+		int i = (int) hash & (PATH_SET_SIZE - 1);
+		while(pathHashes[i] != hash || !pathUsed[i]) {
+			i = (i + 1) & (PATH_SET_SIZE - 1);
+		}
+		pathUsed[i] = false;
+	}
+	
+	//checks the node and time limits, which only happens every CHECK_INTERVAL nodes
+	private boolean limitReached() {
+		long reported = nextCheck - CHECK_INTERVAL;
+		nextCheck = nodes + CHECK_INTERVAL;
+		if(control != null) {
+			return control.report(nodes - reported);
+		}
+		return nodes >= nodeLimit || System.nanoTime() > deadline;
+	}
+	
+	//makes a move and adds it to the current line
+	private void applyAndRecord(int move) {
+		model.apply(move);
+		recordMove(move);
+	}
+	
+	//adds a move that was already made to the current line
+	private void recordMove(int move) {
+		nodes++;
+		if(pathLength == path.length) {
+			path = Arrays.copyOf(path, pathLength * 2);
+		}
+		path[pathLength++] = move;
+	}
+	
+	//the move that turns over the next stock cards, recycling the waste first if the stock is empty
+	private int nextStockMove() {
+		if(model.stockIsEmpty()) {
+			return Move.of(Move.WASTE_TO_STOCK, 0, 0, model.wasteSize());
+		}
+		return Move.of(Move.STOCK_TO_WASTE, 0, 0, model.cardsToDraw());
+	}
+	
+	/* ************************move ordering and pruning**************************************** */
+	
+	//fills the buffer for this ply with the moves worth trying, best first
+	private MoveBuffer orderedMoves(int ply, int tableMove) {
+		if(buffers[ply] == null) {
+			buffers[ply] = new MoveBuffer(MAX_SOLVER_MOVES);
+		}
+		MoveBuffer moves = buffers[ply];
+		int count = model.generateMoves(moves);
+		int kept = 0;
+		for(int i = 0; i < count; i++) {
+			int move = moves.get(i);
+			if(model.isSafeFoundationMove(move)) {
+				if(count > 1) {
+					exhaustive = false;
+				}
+				moves.clear();
+				moves.add(move);
+				return moves;
+			}
+			kept = insert(moves, kept, move, score(move), tableMove);
+		}
+		moves.truncate(kept);
+		return addStockPlays(moves, tableMove);
+	}
+	
+	//turns over the stock one draw at a time and adds a move for every way the waste card can be played,
+	//stopping once the stock has gone all the way around
+	private MoveBuffer addStockPlays(MoveBuffer moves, int tableMove) {
+		long startHash = model.positionHash();
+		long recycledHash = 0;
+		int maxSteps = 3 * (model.stockSize() + model.wasteSize() + 1);
+		int steps = 0;
+		while(!model.stockIsEmpty() || model.canRecycleWaste()) {
+			if(steps == maxSteps) {
+				exhaustive = false;
+				break;
+			}
+			model.apply(nextStockMove());
+			steps++;
+			long hash = model.positionHash();
+			if(hash == startHash || hash == recycledHash) {
+				break;
+			} else if(model.wasteIsEmpty()) {
+				if(recycledHash == 0) {
+					recycledHash = hash;
+				}
+				continue;
+			}
+			int stepBits = steps << STOCK_STEPS_SHIFT;
+			if(model.canMoveTopWasteCardToFoundation()) {
+				int foundation = foundationIndex(model.peekAtTopWasteCard());
+				int move = Move.of(Move.WASTE_TO_FOUNDATION, 0, foundation, 1);
+				insert(moves, moves.size(), move | stepBits, score(move) - 5 - steps / 8, tableMove);
+			}
+			for(int t = 0; t < SolitaireModel.TABLEAU_SIZE; t++) {
+				int move = Move.of(Move.WASTE_TO_TABLEAU, 0, t, 1);
+				int score = score(move);
+				if(score != SKIP && model.canMoveTopWasteCardToTableau(t)) {
+					insert(moves, moves.size(), move | stepBits, score - 5 - steps / 8, tableMove);
+				}
+			}
+		}
+		for(int i = 0; i < steps; i++) {
+			model.undo();
+		}
+		return moves;
+	}
+	
+	//inserts the move into the first kept moves of the buffer, highest score first, and returns the new count
+	private int insert(MoveBuffer moves, int kept, int move, int score, int tableMove) {
+		if(score == SKIP) {
+			return kept;
+		} else if(move == tableMove) {
+			score += TABLE_MOVE_BONUS;
+		}
+		if(kept == moves.size()) {
+			moves.add(move);
+		}
+		int j = kept;
+		while(j > 0 && scores[j - 1] < score) {
+			scores[j] = scores[j - 1];
+			moves.set(j, moves.get(j - 1));
+			j--;
+		}
+		scores[j] = score;
+		moves.set(j, move);
+		return kept + 1;
+	}
+	
+	//the index of the foundation for the card's suit
+	private static int foundationIndex(Card card) {
+		return Rules.foundationIndex(card);
+	}
+	
+	//how promising a move is, or SKIP if it can never help
+	private int score(int move) {
+		int type = Move.type(move);
+		if(isTableauDest(type) && model.tableauPileIsEmpty(Move.dest(move)) && !isFirstEmptyPile(Move.dest(move))) {
+			return SKIP; //all empty piles are alike, so only ever fill the first one
+		}
+		if(type == Move.WASTE_TO_FOUNDATION || type == Move.TABLEAU_TO_FOUNDATION) {
+			return 90;
+		} else if(type == Move.TABLEAU_TO_TABLEAU) {
+			int source = Move.source(move);
+			boolean wholeRun = Move.count(move) == model.numVisibleCards(source);
+			int hidden = model.numHiddenCards(source);
+			if(wholeRun && hidden > 0) {
+				return 80 + hidden;
+			} else if(wholeRun) {
+				return model.tableauPileIsEmpty(Move.dest(move)) ? SKIP : 50;
+			}
+			Card exposed = model.peekAtVisibleTableauCard(source, Move.count(move));
+			if(model.foundationSize(foundationIndex(exposed)) == exposed.value - 1) {
+				return 20;
+			}
+			exhaustive = false; //a heuristic cut, so a failed search no longer proves a loss
+			return SKIP;
+		} else if(type == Move.WASTE_TO_TABLEAU) {
+			return 60;
+		} else if(type == Move.STOCK_TO_WASTE || type == Move.WASTE_TO_STOCK) {
+			return SKIP;
+		}
+		return 10;
+	}
+	
+	//checks if moves of this type put cards on a tableau pile
+	private static boolean isTableauDest(int type) {
+		return type == Move.WASTE_TO_TABLEAU || type == Move.TABLEAU_TO_TABLEAU || type == Move.FOUNDATION_TO_TABLEAU;
+	}
+	
+	//checks if no tableau pile before the given one is empty
+	private boolean isFirstEmptyPile(int tableauIndex) {
+		for(int t = 0; t < tableauIndex; t++) {
+			if(model.tableauPileIsEmpty(t)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,207 @@
+package solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import gameplay.*;
+import metrics.SolveEvent;
+import setup.Variant;
+
+/**
+ * ParallelKlondikeSolver solves a solitaire position with the same search as KlondikeSolver, split
+ * across the threads of a ForkJoinPool
+ * 
+ * The first few plies of the search are expanded into one fork/join task per move, and each task at
+ * the split depth searches its subtree with a KlondikeSolver owned by its worker thread. Idle workers
+ * steal tasks from busy ones, every worker shares one lock-free transposition table, and as soon as any
+ * worker finds a win every other worker stops. The table only holds finished results. Each worker finds
+ * repeated positions on its own path, so a position another worker is still searching is never mistaken
+ * for a loss. The solve is only a LOSS if every subtree was proven lost and no moves were left out
+ * while splitting. A solver can be reused for many positions, one at a time, and should be closed when
+ * it is no longer needed.
+ * @author Yael Goldin
+ */
+public final class ParallelKlondikeSolver implements AutoCloseable {
+	public static final int DEFAULT_SPLIT_DEPTH = 3;
+	public static final int DEFAULT_TABLE_SIZE_POWER_OF_TWO = 24;
+	
+	private final ForkJoinPool pool;
+	private final TranspositionTable table;
+	private final ThreadLocal<KlondikeSolver> workerSolvers;
+	private final long nodeLimit;
+	private final long timeLimitNanos;
+	private final int splitDepth;
+	
+	/**
+	 * initializes a solver that uses every available processor with the default limits
+	 */
+	public ParallelKlondikeSolver() {
+		this(Runtime.getRuntime().availableProcessors(), KlondikeSolver.DEFAULT_NODE_LIMIT,
+				KlondikeSolver.DEFAULT_TIME_LIMIT_MILLIS, DEFAULT_TABLE_SIZE_POWER_OF_TWO, DEFAULT_SPLIT_DEPTH);
+	}
+	
+	/**
+	 * initializes a solver with its own thread pool and transposition table
+	 * 
+	 * @param parallelism The number of worker threads
+	 * @param nodeLimit The most moves all of the workers together can make in one solve
+	 * @param timeLimitMillis The most time to spend on one solve before giving up
+	 * @param tableSizePowerOfTwo The shared transposition table holds 2^tableSizePowerOfTwo entries
+	 * @param splitDepth How many plies to expand into separate tasks before searching sequentially
+	 * @throws IllegalArgumentException if any of the values are not positive or the table size is invalid
+	 */
+	public ParallelKlondikeSolver(int parallelism, long nodeLimit, long timeLimitMillis, int tableSizePowerOfTwo,
+			int splitDepth) {
+		if(parallelism < 1 || nodeLimit < 1 || timeLimitMillis < 1 || splitDepth < 1) {
+			throw new IllegalArgumentException("invalid parallelism/limits/split depth");
+		}
+		table = new TranspositionTable(tableSizePowerOfTwo, TranspositionTable.ReplacementPolicy.ALWAYS_REPLACE);
+		pool = new ForkJoinPool(parallelism);
+		workerSolvers = ThreadLocal.withInitial(() -> new KlondikeSolver(Long.MAX_VALUE, Long.MAX_VALUE / 1_000_000,
+				table));
+		this.nodeLimit = nodeLimit;
+		timeLimitNanos = timeLimitMillis * 1_000_000;
+		this.splitDepth = splitDepth;
+	}
+	
+	/**
+	 * solves the draw one deal with the given seed
+	 * 
+	 * @param seed The seed of the deal (see SolitaireModel(long))
+	 * @return the result of the solve
+	 */
+	public SolveResult solve(long seed) {
+		return solve(seed, Variant.DRAW_ONE);
+	}
+	
+	/**
+	 * solves the deal with the given seed, played as the given variant
+	 * 
+	 * @param seed The seed of the deal (see SolitaireModel(long, Variant))
+	 * @param variant The variant to play the deal as
+	 * @return the result of the solve
+	 * @throws IllegalArgumentException if the variant is null
+	 */
+	public SolveResult solve(long seed, Variant variant) {
+		return solve(new SolitaireModel(seed, variant));
+	}
+	
+	/**
+	 * solves the current position of the given model, which is not changed
+	 * 
+	 * @param start The model to solve
+	 * @return the result of the solve, with winning moves that start from the model's current position
+	 * @throws IllegalArgumentException if the model is null
+	 */
+	public SolveResult solve(SolitaireModel start) {
+		SolveEvent event = KlondikeSolver.beginSolveEvent();
+		long startTime = System.nanoTime();
+		PackedSolitaireState root = PackedSolitaireState.of(start);
+		table.newSearch();
+		Search search = new Search(new SearchControl(nodeLimit, startTime + timeLimitNanos));
+		pool.invoke(new SplitTask(search, root, new int[0], 0));
+		int[] winningMoves = search.winningMoves.get();
+		SolveResult.Outcome outcome;
+		if(winningMoves != null) {
+			outcome = SolveResult.Outcome.WIN;
+		} else if(search.incomplete.get()) {
+			outcome = SolveResult.Outcome.UNKNOWN;
+			winningMoves = new int[0];
+		} else {
+			outcome = SolveResult.Outcome.LOSS;
+			winningMoves = new int[0];
+		}
+		SolveResult result = new SolveResult(outcome, winningMoves, search.control.nodes(), System.nanoTime() - startTime);
+		return KlondikeSolver.report(event, getClass(), result);
+	}
+	
+	/**
+	 * shuts down the worker threads
+	 */
+	@Override
+	public void close() {
+		pool.shutdown();
+	}
+	
+	//the shared state of one solve
+	private static final class Search {
+		final SearchControl control;
+		final AtomicReference<int[]> winningMoves;
+		final AtomicBoolean incomplete;
+		
+		Search(SearchControl control) {
+			this.control = control;
+			winningMoves = new AtomicReference<>();
+			incomplete = new AtomicBoolean();
+		}
+		
+		//records a winning line and stops every worker
+		void win(int[] moves) {
+			if(winningMoves.compareAndSet(null, moves)) {
+				control.stop();
+			}
+		}
+	}
+	
+	//searches the subtree below one position, either by splitting it further or sequentially
+	private final class SplitTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final Search search;
+		private final PackedSolitaireState position;
+		private final int[] movesToPosition;
+		private final int depth;
+		
+		SplitTask(Search search, PackedSolitaireState position, int[] movesToPosition, int depth) {
+			this.search = search;
+			this.position = position;
+			this.movesToPosition = movesToPosition;
+			this.depth = depth;
+		}
+		
+		@Override
+		protected void compute() {
+			if(search.control.isStopped()) {
+				return;
+			}
+			SolitaireModel model = position.toModel();
+			KlondikeSolver solver = workerSolvers.get();
+			if(model.gameOver()) {
+				search.win(movesToPosition);
+			} else if(depth == splitDepth) {
+				SolveResult result = solver.solveSubtree(model, search.control);
+				if(result.outcome == SolveResult.Outcome.WIN) {
+					search.win(concat(movesToPosition, result.winningMoves()));
+				} else if(result.outcome == SolveResult.Outcome.UNKNOWN) {
+					search.incomplete.set(true);
+				}
+			} else {
+				List<SplitTask> children = new ArrayList<>();
+				int[] candidates = solver.candidateMoves(model);
+				if(!solver.candidatesComplete()) {
+					search.incomplete.set(true);
+				}
+				for(int solverMove : candidates) {
+					int[] moves = solver.applySolverMove(model, solverMove);
+					children.add(new SplitTask(search, PackedSolitaireState.of(model), concat(movesToPosition, moves),
+							depth + 1));
+					for(int i = 0; i < moves.length; i++) {
+						model.undo();
+					}
+				}
+				invokeAll(children);
+			}
+		}
+	}
+	
+	//joins two lines of moves
+	private static int[] concat(int[] first, int[] second) {
+		int[] result = new int[first.length + second.length];
+		System.arraycopy(first, 0, result, 0, first.length);
+		System.arraycopy(second, 0, result, first.length, second.length);
+		return result;
+	}
+}
@@ -0,0 +1,64 @@
+package solver;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SearchControl holds the limits and the stop signal shared by every worker of a parallel solve
+ * @author Yael Goldin
+ */
+final class SearchControl {
+	private final AtomicBoolean stopped;
+	private final AtomicLong nodes;
+	private final long nodeLimit;
+	private final long deadline;
+	
+	/**
+	 * initializes the control for one solve
+	 * 
+	 * @param nodeLimit The most moves all of the workers together can make
+	 * @param deadline The System.nanoTime() value after which every worker gives up
+	 */
+	SearchControl(long nodeLimit, long deadline) {
+		stopped = new AtomicBoolean();
+		nodes = new AtomicLong();
+		this.nodeLimit = nodeLimit;
+		this.deadline = deadline;
+	}
+	
+	/**
+	 * adds moves made by one worker to the total and checks if the workers should give up
+	 * 
+	 * @param newNodes The number of moves made since the worker last reported
+	 * @return true if the solve was stopped or a limit was reached, false otherwise
+	 */
+	boolean report(long newNodes) {
+		long total = nodes.addAndGet(newNodes);
+		return stopped.get() || total >= nodeLimit || System.nanoTime() - deadline > 0;
+	}
+	
+	/**
+	 * tells every worker to stop as soon as it next reports
+	 */
+	void stop() {
+		stopped.set(true);
+	}
+	
+	/**
+	 * checks if the solve was stopped
+	 * 
+	 * @return true if it was, false otherwise
+	 */
+	boolean isStopped() {
+		return stopped.get();
+	}
+	
+	/**
+	 * finds the total number of moves reported by all of the workers
+	 * 
+	 * @return the number of moves
+	 */
+	long nodes() {
+		return nodes.get();
+	}
+}
@@ -0,0 +1,54 @@
+package solver;
+
+/**
+ * SolveResult holds the outcome of solving one solitaire position
+ * @author Yael Goldin
+ */
+public final class SolveResult {
+	/**
+	 * the possible outcomes of a solve
+	 */
+	public enum Outcome {
+		/** a winning sequence of moves was found */
+		WIN,
+		/** every position the solver could reach was searched and none of them are won */
+		LOSS,
+		/** the node or time limit ran out before the search finished */
+		UNKNOWN;
+	}
+	
+	public final Outcome outcome;
+	public final long nodes;
+	public final long elapsedNanos;
+	private final int[] winningMoves;
+	
+	/**
+	 * initializes the result
+	 * 
+	 * @param outcome The outcome of the solve
+	 * @param winningMoves The encoded moves that win the game, or an empty array if it wasn't won
+	 * @param nodes The number of moves the solver made while searching
+	 * @param elapsedNanos How long the solve took
+	 */
+	SolveResult(Outcome outcome, int[] winningMoves, long nodes, long elapsedNanos) {
+		this.outcome = outcome;
+		this.winningMoves = winningMoves;
+		this.nodes = nodes;
+		this.elapsedNanos = elapsedNanos;
+	}
+	
+	/**
+	 * finds the moves that win the game from the solved position
+	 * 
+	 * @return a copy of the encoded moves (see gameplay.Move), which is empty unless the outcome is WIN
+	 */
+	public int[] winningMoves() {
+		return winningMoves.clone();
+	}
+	
+	@Override
+	public String toString() {
+		return outcome + " (" + winningMoves.length + " moves, " + nodes + " nodes, "
+				+ elapsedNanos / 1_000_000 + " ms)";
+	}
+}
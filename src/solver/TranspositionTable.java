@@ -0,0 +1,184 @@
+package solver;
+
+import java.util.Arrays;
+
+/**
+ * TranspositionTable is a fixed-size, open-addressed table of search results keyed by position hash
+ * 
+ * Each entry is two longs: the key XORed with the data, and the data itself (depth, result, best move
+ * and the search generation it was stored in). Entries from older generations are ignored by lookups
+ * and are the first to be replaced, so starting a new search never needs to clear the arrays. A lookup
+ * only matches if the XOR of the two gives back the key, so an entry torn by two
+ * threads writing at once is treated as a miss instead of returning wrong data. This lets one table
+ * be shared by several search threads without locking.
+ * @author Yael Goldin
+ */
+public final class TranspositionTable {
+	/**
+	 * what to do when a new entry lands in a slot that already holds a different position
+	 */
+	public enum ReplacementPolicy {
+		/** keep whichever entry was searched deeper */
+		DEPTH_PREFERRED,
+		/** always overwrite with the new entry */
+		ALWAYS_REPLACE;
+	}
+	
+	public static final int RESULT_UNKNOWN = 0;
+	public static final int RESULT_WIN = 2;
+	public static final int RESULT_LOSS = 3;
+	
+	/**
+	 * the move stored when an entry has no best move
+	 */
+	public static final int NO_MOVE = -1;
+	
+	private static final int PROBE_LENGTH = 4;
+	private static final long MOVE_MASK = 0xFFFFFFFFL;
+	private static final int RESULT_SHIFT = 32;
+	private static final int RESULT_MASK = 0xFF;
+	private static final int DEPTH_SHIFT = 40;
+	private static final int DEPTH_MASK = 0xFFFF;
+	private static final int GENERATION_SHIFT = 56;
+	private static final long EMPTY = 0;
+	
+	private final long[] keys;
+	private final long[] data;
+	private final int mask;
+	private final ReplacementPolicy policy;
+	private volatile long generation;
+	
+	/**
+	 * initializes an empty table
+	 * 
+	 * @param capacityPowerOfTwo The table holds 2^capacityPowerOfTwo entries, each using 16 bytes
+	 * @param policy What to do when a slot is already taken
+	 * @throws IllegalArgumentException if capacityPowerOfTwo is outside of the range [2, 30]
+	 * or the policy is null
+	 */
+	public TranspositionTable(int capacityPowerOfTwo, ReplacementPolicy policy) {
+		if(capacityPowerOfTwo < 2 || capacityPowerOfTwo > 30 || policy == null) {
+			throw new IllegalArgumentException("invalid capacity/policy");
+		}
+		keys = new long[1 << capacityPowerOfTwo];
+		data = new long[keys.length];
+		mask = keys.length - 1;
+		this.policy = policy;
+		generation = 1L << GENERATION_SHIFT;
+	}
+	
+	/**
+	 * starts a new search, so every entry stored so far is ignored by lookups and may be replaced
+	 */
+	public void newSearch() {
+		long next = generation + (1L << GENERATION_SHIFT);
+		generation = next == 0 ? 1L << GENERATION_SHIFT : next;
+	}
+	
+	/**
+	 * finds the stored data for the given position
+	 * 
+	 * @param hash The hash of the position
+	 * @return the packed data (see result, depth and bestMove), or 0 if the position is not stored
+	 */
+	public long probe(long hash) {
+		int slot = (int) hash & mask;
+		long currentGeneration = generation;
+		for(int i = 0; i < PROBE_LENGTH; i++) {
+			int idx = (slot + i) & mask;
+			long entryData = data[idx];
+			if((keys[idx] ^ entryData) == hash && isCurrent(entryData, currentGeneration)) {
+				return entryData;
+			}
+		}
+		return EMPTY;
+	}
+	
+	/**
+	 * stores a result for the given position, replacing an older entry for the same position or
+	 * evicting another position according to the replacement policy
+	 * 
+	 * @param hash The hash of the position
+	 * @param depth How deep the position was searched, in the range [0, 65535]
+	 * @param result One of the RESULT constants other than RESULT_UNKNOWN
+	 * @param bestMove The best move found from the position, or NO_MOVE
+	 */
+	public void store(long hash, int depth, int result, int bestMove) {
+		long currentGeneration = generation;
+		long entryData = (bestMove & MOVE_MASK) | (long) (result & RESULT_MASK) << RESULT_SHIFT
+				| (long) (depth & DEPTH_MASK) << DEPTH_SHIFT | currentGeneration;
+		int slot = (int) hash & mask;
+		int victim = slot;
+		int victimDepth = Integer.MAX_VALUE;
+		for(int i = 0; i < PROBE_LENGTH; i++) {
+			int idx = (slot + i) & mask;
+			long oldData = data[idx];
+			if(!isCurrent(oldData, currentGeneration) || (keys[idx] ^ oldData) == hash) {
+				victim = idx;
+				victimDepth = -1;
+				break;
+			}
+			if(depth(oldData) < victimDepth) {
+				victim = idx;
+				victimDepth = depth(oldData);
+			}
+		}
+		if(policy == ReplacementPolicy.DEPTH_PREFERRED && victimDepth > depth) {
+			return;
+		}
+		data[victim] = entryData;
+		keys[victim] = hash ^ entryData;
+	}
+	
+	//checks if the entry was stored during the current search
+	private static boolean isCurrent(long entryData, long currentGeneration) {
+		return (entryData & -(1L << GENERATION_SHIFT)) == currentGeneration;
+	}
+	
+	/**
+	 * removes every entry from the table
+	 */
+	public void clear() {
+		Arrays.fill(keys, 0);
+		Arrays.fill(data, EMPTY);
+	}
+	
+	/**
+	 * finds how many entries the table can hold
+	 * 
+	 * @return the capacity
+	 */
+	public int capacity() {
+		return keys.length;
+	}
+	
+	/**
+	 * finds the result stored in packed data returned by probe
+	 * 
+	 * @param entryData The packed data
+	 * @return one of the RESULT constants
+	 */
+	public static int result(long entryData) {
+		return (int) (entryData >>> RESULT_SHIFT) & RESULT_MASK;
+	}
+	
+	/**
+	 * finds the depth stored in packed data returned by probe
+	 * 
+	 * @param entryData The packed data
+	 * @return the depth
+	 */
+	public static int depth(long entryData) {
+		return (int) (entryData >>> DEPTH_SHIFT) & DEPTH_MASK;
+	}
+	
+	/**
+	 * finds the best move stored in packed data returned by probe
+	 * 
+	 * @param entryData The packed data
+	 * @return the encoded move, or NO_MOVE
+	 */
+	public static int bestMove(long entryData) {
+		return (int) (entryData & MOVE_MASK);
+	}
+}
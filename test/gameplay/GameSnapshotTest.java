@@ -0,0 +1,82 @@
+package gameplay;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import setup.Variant;
+
+/**
+ * GameSnapshotTest round-trips games through snapshots and checks that damaged snapshots are rejected
+ * instead of restored
+ * @author Yael Goldin
+ */
+class GameSnapshotTest {
+	//the magic number, the version and the seed, the draw one position, then the checksum
+	private static final int FIRST_VERSION_SIZE = Integer.BYTES + Integer.BYTES + Long.BYTES
+			+ PackedSolitaireState.DRAW_ONE_PACKED_SIZE + Integer.BYTES;
+	
+	@Test
+	void snapshotRestoresTheSamePositionAndSeed() {
+		for(Variant variant : Variant.values()) {
+			SolitaireModel model = RandomGames.played(11, variant, 60);
+			SolitaireModel restored = GameSnapshot.read(GameSnapshot.toBytes(model), 0);
+			assertEquals(PackedSolitaireState.of(model), PackedSolitaireState.of(restored));
+			assertEquals(model.positionHash(), restored.positionHash());
+			assertEquals(model.getSeed(), restored.getSeed());
+			assertEquals(variant, restored.variant());
+			assertEquals(0, restored.movesMade());
+		}
+	}
+	
+	@Test
+	void snapshotFileRoundTrips(@TempDir Path dir) throws IOException {
+		SolitaireModel model = RandomGames.played(12, Variant.DRAW_THREE, 60);
+		Path file = dir.resolve("game.snap");
+		GameSnapshot.save(model, file);
+		assertEquals(PackedSolitaireState.of(model), PackedSolitaireState.of(GameSnapshot.load(file)));
+	}
+	
+	@Test
+	void everyDamagedSnapshotByteIsRejected() {
+		byte[] snapshot = GameSnapshot.toBytes(RandomGames.played(13, Variant.DRAW_ONE, 60));
+		for(int i = 0; i < snapshot.length; i++) {
+			byte[] damaged = snapshot.clone();
+			damaged[i] ^= 0x10;
+			assertThrows(IllegalArgumentException.class, () -> GameSnapshot.read(damaged, 0), "byte " + i);
+		}
+	}
+	
+	@Test
+	void firstVersionSnapshotIsRestoredAsDrawOne() {
+		//few enough moves that the waste has not been recycled, which the first version did not store
+		SolitaireModel model = RandomGames.played(15, Variant.DRAW_ONE, 10);
+		byte[] snapshot = new byte[FIRST_VERSION_SIZE];
+		ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+		buffer.putInt(GameSnapshot.MAGIC).putInt(1).putLong(model.getSeed());
+		buffer.put(PackedSolitaireState.of(model).toByteArray(), 0, PackedSolitaireState.DRAW_ONE_PACKED_SIZE);
+		CRC32C crc = new CRC32C();
+		crc.update(snapshot, 0, buffer.position());
+		buffer.putInt((int) crc.getValue());
+		SolitaireModel restored = GameSnapshot.read(snapshot, 0);
+		assertEquals(PackedSolitaireState.of(model), PackedSolitaireState.of(restored));
+		assertEquals(model.getSeed(), restored.getSeed());
+		assertEquals(Variant.DRAW_ONE, restored.variant());
+	}
+	
+	@Test
+	void snapshotFileOfTheWrongSizeIsRejected(@TempDir Path dir) throws IOException {
+		Path file = dir.resolve("game.snap");
+		byte[] snapshot = GameSnapshot.toBytes(RandomGames.played(14, Variant.DRAW_ONE, 60));
+		Files.write(file, Arrays.copyOf(snapshot, snapshot.length - 2));
+		assertThrows(IOException.class, () -> GameSnapshot.load(file));
+	}
+}
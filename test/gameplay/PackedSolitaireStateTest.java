@@ -0,0 +1,72 @@
+package gameplay;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import setup.Deck;
+import setup.Rules;
+import setup.TableauPile;
+import setup.Variant;
+
+/**
+ * PackedSolitaireStateTest round-trips positions through their packed bytes and checks that damaged
+ * bytes are rejected or restore a position that packs the same way again
+ * @author Yael Goldin
+ */
+class PackedSolitaireStateTest {
+	private static final int CORRUPTIONS = 2000;
+	//after the cards, the stock and waste sizes and the tableau sizes (see PackedSolitaireState)
+	private static final int VISIBLE_CARDS_OF_LAST_PILE = Deck.DECK_SIZE + 2 + 2 * SolitaireModel.TABLEAU_SIZE - 1;
+	
+	@Test
+	void packedStateRestoresTheSamePosition() {
+		for(Variant variant : Variant.values()) {
+			SolitaireModel model = RandomGames.played(11, variant, 60);
+			PackedSolitaireState state = PackedSolitaireState.of(model);
+			SolitaireModel restored = PackedSolitaireState.fromBytes(state.toByteArray(), 0).toModel();
+			assertEquals(state, PackedSolitaireState.of(restored));
+			assertEquals(model.positionHash(), restored.positionHash());
+			assertEquals(variant, restored.variant());
+		}
+	}
+	
+	@Test
+	void corruptPackedStatesAreRejectedOrRestoreConsistently() {
+		byte[] packed = PackedSolitaireState.of(RandomGames.played(15, Variant.DRAW_THREE, 60)).toByteArray();
+		Random random = new Random(15);
+		for(int i = 0; i < CORRUPTIONS; i++) {
+			byte[] damaged = packed.clone();
+			damaged[random.nextInt(damaged.length)] = (byte) random.nextInt(256);
+			PackedSolitaireState state = PackedSolitaireState.fromBytes(damaged, 0);
+			try {
+				//the card bytes left unused by the foundations can hold anything, so compare positions
+				SolitaireModel model = state.toModel();
+				PackedSolitaireState repacked = PackedSolitaireState.of(model);
+				assertEquals(repacked, PackedSolitaireState.of(repacked.toModel()));
+				assertEquals(model.positionHash(), repacked.toModel().positionHash());
+			} catch(IllegalStateException e) {
+				//rejected, which is what should happen to most of them
+			}
+		}
+	}
+	
+	@Test
+	void packedStateWithADuplicateCardIsRejected() {
+		byte[] packed = PackedSolitaireState.of(new SolitaireModel(16)).toByteArray();
+		packed[1] = packed[0];
+		assertThrows(IllegalStateException.class, () -> PackedSolitaireState.fromBytes(packed, 0).toModel());
+	}
+	
+	@Test
+	void packedStateWithVisibleCardsThatAreNotARunIsRejected() {
+		SolitaireModel model = new SolitaireModel(16);
+		TableauPile lastPile = model.tableauPile(SolitaireModel.TABLEAU_SIZE - 1);
+		assertFalse(Rules.canStack(lastPile.cardAt(lastPile.size() - 1), lastPile.cardAt(lastPile.size() - 2)));
+		byte[] packed = PackedSolitaireState.of(model).toByteArray();
+		packed[VISIBLE_CARDS_OF_LAST_PILE] = 2;
+		assertThrows(IllegalStateException.class, () -> PackedSolitaireState.fromBytes(packed, 0).toModel());
+	}
+}
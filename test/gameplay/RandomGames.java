@@ -0,0 +1,34 @@
+package gameplay;
+
+import java.util.Random;
+
+import setup.Variant;
+
+/**
+ * RandomGames deals games for the tests and plays them forward with random legal moves, so the same
+ * seed always gives the same game
+ * @author Yael Goldin
+ */
+public final class RandomGames {
+	//not instantiable
+	private RandomGames() {
+	}
+	
+	/**
+	 * deals a game and makes random legal moves in it
+	 * 
+	 * @param seed The seed of the deal, which also picks the moves
+	 * @param variant The variant to play
+	 * @param maxMoves The most moves to make, fewer if the game runs out of moves
+	 * @return the game after the moves
+	 */
+	public static SolitaireModel played(long seed, Variant variant, int maxMoves) {
+		SolitaireModel model = new SolitaireModel(seed, variant);
+		Random random = new Random(seed);
+		MoveBuffer moves = new MoveBuffer();
+		for(int i = 0; i < maxMoves && model.generateMoves(moves) > 0; i++) {
+			model.apply(moves.get(random.nextInt(moves.size())));
+		}
+		return model;
+	}
+}
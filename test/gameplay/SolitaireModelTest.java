@@ -0,0 +1,103 @@
+package gameplay;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import setup.Variant;
+
+/**
+ * SolitaireModelTest plays random games and checks that the model can always take its moves back, and that
+ * its incremental state matches the same position rebuilt from scratch
+ * @author Yael Goldin
+ */
+class SolitaireModelTest {
+	private static final int GAMES_PER_VARIANT = 20;
+	private static final int MOVES_PER_GAME = 300;
+	
+	@Test
+	void undoingEveryMoveRestoresTheDeal() {
+		for(Variant variant : Variant.values()) {
+			for(long seed = 0; seed < GAMES_PER_VARIANT; seed++) {
+				SolitaireModel model = RandomGames.played(seed, variant, MOVES_PER_GAME);
+				while(model.movesMade() > 0) {
+					model.undo();
+				}
+				PackedSolitaireState deal = PackedSolitaireState.of(new SolitaireModel(seed, variant));
+				assertEquals(deal, PackedSolitaireState.of(model), variant + " seed " + seed);
+			}
+		}
+	}
+	
+	@Test
+	void positionHashMatchesFreshHashAfterEveryApplyAndUndo() {
+		for(Variant variant : Variant.values()) {
+			for(long seed = 0; seed < GAMES_PER_VARIANT; seed++) {
+				SolitaireModel model = new SolitaireModel(seed, variant);
+				long startHash = model.positionHash();
+				Random random = new Random(seed);
+				MoveBuffer moves = new MoveBuffer();
+				for(int i = 0; i < MOVES_PER_GAME && model.generateMoves(moves) > 0; i++) {
+					if(model.movesMade() > 0 && random.nextInt(4) == 0) {
+						model.undo();
+					} else {
+						model.apply(moves.get(random.nextInt(moves.size())));
+					}
+					assertEquals(freshHash(model), model.positionHash(), variant + " seed " + seed);
+				}
+				while(model.movesMade() > 0) {
+					model.undo();
+					assertEquals(freshHash(model), model.positionHash(), variant + " seed " + seed);
+				}
+				assertEquals(startHash, model.positionHash());
+			}
+		}
+	}
+	
+	@Test
+	void applyRejectsMovesThatAreNotLegal() {
+		SolitaireModel model = new SolitaireModel(1);
+		PackedSolitaireState deal = PackedSolitaireState.of(model);
+		assertThrows(IllegalArgumentException.class, () -> model.apply(Move.of(Move.TABLEAU_TO_TABLEAU, 0, 9, 1)));
+		assertThrows(IllegalArgumentException.class, () -> model.apply(Move.of(Move.STOCK_TO_WASTE, 0, 0, 5)));
+		assertThrows(IllegalStateException.class, () -> model.apply(Move.of(Move.WASTE_TO_FOUNDATION, 0, 0, 1)));
+		assertThrows(IllegalStateException.class, model::undo);
+		assertEquals(deal, PackedSolitaireState.of(model));
+		assertEquals(0, model.movesMade());
+	}
+	
+	@Test
+	void pileIndexPastTheLastPileIsRejected() {
+		SolitaireModel model = new SolitaireModel(1);
+		assertThrows(IllegalArgumentException.class, () -> model.tableauPileIsEmpty(SolitaireModel.TABLEAU_SIZE));
+		assertThrows(IllegalArgumentException.class, () -> model.foundationIsEmpty(4));
+		assertThrows(IllegalArgumentException.class, () -> model.tableauPileIsEmpty(-1));
+		assertEquals(MoveStatus.INVALID_PILE, model.tryMoveTableauCardToFoundation(SolitaireModel.TABLEAU_SIZE));
+	}
+	
+	@Test
+	void undoingADrawAfterARecycleTakesBackBoth() {
+		SolitaireModel model = new SolitaireModel(7);
+		while(!model.stockIsEmpty()) {
+			model.moveTopStockCardToWaste();
+		}
+		PackedSolitaireState beforeRecycle = PackedSolitaireState.of(model);
+		int movesBeforeRecycle = model.movesMade();
+		model.moveWasteToStock();
+		model.moveTopStockCardToWaste();
+		PackedSolitaireState afterDraw = PackedSolitaireState.of(model);
+		model.moveTopStockCardToWaste();
+		assertEquals(MoveStatus.OK, model.tryUndoPlayerMove());
+		assertEquals(afterDraw, PackedSolitaireState.of(model));
+		assertEquals(MoveStatus.OK, model.tryUndoPlayerMove());
+		assertEquals(beforeRecycle, PackedSolitaireState.of(model));
+		assertEquals(movesBeforeRecycle, model.movesMade());
+	}
+	
+	//the hash of the model's position, computed from nothing but the position
+	private static long freshHash(SolitaireModel model) {
+		return PackedSolitaireState.of(model).toModel().positionHash();
+	}
+}
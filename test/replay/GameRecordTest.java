@@ -0,0 +1,127 @@
+package replay;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import gameplay.Move;
+import gameplay.PackedSolitaireState;
+import gameplay.RandomGames;
+import gameplay.SolitaireModel;
+import setup.Variant;
+
+/**
+ * GameRecordTest writes games with GameRecordWriter and checks that GameReplayer plays them back to the
+ * same positions, and rejects files it cannot trust
+ * @author Yael Goldin
+ */
+class GameRecordTest {
+	@TempDir
+	Path dir;
+	
+	@Test
+	void replayedGamesEndInTheRecordedPositions() throws IOException {
+		Path file = dir.resolve("games.rec");
+		List<PackedSolitaireState> recorded = new ArrayList<>();
+		try(GameRecordWriter writer = new GameRecordWriter(file)) {
+			for(Variant variant : Variant.values()) {
+				for(long seed = 0; seed < 5; seed++) {
+					SolitaireModel model = RandomGames.played(seed, variant, 100);
+					writer.append(model);
+					recorded.add(PackedSolitaireState.of(model));
+				}
+			}
+		}
+		List<PackedSolitaireState> replayed = new ArrayList<>();
+		GameReplayer.Summary summary = GameReplayer.replay(file, (seed, model, valid) -> {
+			assertTrue(valid);
+			replayed.add(PackedSolitaireState.of(model));
+		});
+		assertEquals(recorded, replayed);
+		assertEquals(recorded.size(), summary.games);
+		assertEquals(0, summary.invalidGames);
+	}
+	
+	@Test
+	void appendingToAnExistingFileKeepsItsGames() throws IOException {
+		Path file = dir.resolve("games.rec");
+		try(GameRecordWriter writer = new GameRecordWriter(file)) {
+			writer.append(RandomGames.played(1, Variant.DRAW_ONE, 100));
+		}
+		try(GameRecordWriter writer = new GameRecordWriter(file)) {
+			writer.append(RandomGames.played(2, Variant.DRAW_THREE, 100));
+		}
+		assertEquals(2, GameReplayer.replay(file, null).games);
+	}
+	
+	@Test
+	void illegalRecordedMoveMakesTheGameInvalid() throws IOException {
+		Path file = dir.resolve("games.rec");
+		try(GameRecordWriter writer = new GameRecordWriter(file)) {
+			writer.append(3, new int[] {Move.of(Move.WASTE_TO_FOUNDATION, 0, 0, 1)}, 1);
+		}
+		GameReplayer.Summary summary = GameReplayer.replay(file, (seed, model, valid) -> assertFalse(valid));
+		assertEquals(1, summary.invalidGames);
+	}
+	
+	@Test
+	void modelNotDealtFromItsSeedIsNotRecorded() throws IOException {
+		SolitaireModel restored = PackedSolitaireState.of(RandomGames.played(4, Variant.DRAW_ONE, 100)).toModel();
+		try(GameRecordWriter writer = new GameRecordWriter(dir.resolve("games.rec"))) {
+			assertThrows(IllegalArgumentException.class, () -> writer.append(restored));
+			assertEquals(0, writer.gamesWritten());
+		}
+	}
+	
+	@Test
+	void truncatedFileIsRejected() throws IOException {
+		Path file = dir.resolve("games.rec");
+		try(GameRecordWriter writer = new GameRecordWriter(file)) {
+			writer.append(RandomGames.played(5, Variant.DRAW_ONE, 100));
+		}
+		byte[] bytes = Files.readAllBytes(file);
+		Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+		assertThrows(IOException.class, () -> GameReplayer.replay(file, null));
+	}
+	
+	@Test
+	void firstVersionFileIsReplayedAsDrawOneButNotAppendedTo() throws IOException {
+		SolitaireModel model = RandomGames.played(6, Variant.DRAW_ONE, 100);
+		ByteBuffer bytes = ByteBuffer.allocate(GameRecordWriter.HEADER_SIZE
+				+ GameRecordWriter.DRAW_ONE_RECORD_HEADER_SIZE + model.movesMade());
+		bytes.putInt(GameRecordWriter.MAGIC).putInt(GameRecordWriter.DRAW_ONE_VERSION);
+		bytes.putLong(model.getSeed()).putShort((short) model.movesMade());
+		for(int i = 0; i < model.movesMade(); i++) {
+			bytes.put((byte) MoveCodes.encode(model.moveAt(i)));
+		}
+		Path file = dir.resolve("games.rec");
+		Files.write(file, bytes.array());
+		List<PackedSolitaireState> replayed = new ArrayList<>();
+		GameReplayer.Summary summary = GameReplayer.replay(file, (seed, replayedModel, valid) -> {
+			assertTrue(valid);
+			assertEquals(Variant.DRAW_ONE, replayedModel.variant());
+			replayed.add(PackedSolitaireState.of(replayedModel));
+		});
+		assertEquals(List.of(PackedSolitaireState.of(model)), replayed);
+		assertEquals(1, summary.games);
+		assertThrows(IOException.class, () -> new GameRecordWriter(file));
+	}
+	
+	@Test
+	void fileOfAnotherVersionIsRejected() throws IOException {
+		Path file = dir.resolve("games.rec");
+		Files.write(file, ByteBuffer.allocate(GameRecordWriter.HEADER_SIZE).putInt(GameRecordWriter.MAGIC)
+				.putInt(GameRecordWriter.VERSION + 1).array());
+		assertThrows(IOException.class, () -> GameReplayer.replay(file, null));
+		assertThrows(IOException.class, () -> new GameRecordWriter(file));
+	}
+}
@@ -0,0 +1,45 @@
+package server;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import gameplay.PackedSolitaireState;
+import gameplay.SolitaireModel;
+
+/**
+ * GameSessionTest checks the session commands that do more than one model move at a time, and that a
+ * parked session comes back as it was
+ * @author Yael Goldin
+ */
+class GameSessionTest {
+	@Test
+	void undoTakesBackAFlipThatRecycledTheWaste() {
+		GameSession session = new GameSession(7);
+		SolitaireModel model = session.model();
+		while(!model.stockIsEmpty()) {
+			assertEquals(GameSession.OK, session.handle("1"));
+		}
+		PackedSolitaireState beforeRecycle = PackedSolitaireState.of(model);
+		int movesBeforeRecycle = model.movesMade();
+		assertEquals(GameSession.OK, session.handle("1"));
+		assertEquals(movesBeforeRecycle + 2, model.movesMade());
+		assertEquals(GameSession.OK, session.handle("7"));
+		assertEquals(beforeRecycle, PackedSolitaireState.of(model));
+		assertEquals(movesBeforeRecycle, model.movesMade());
+	}
+	
+	@Test
+	void parkedGameComesBackWithItsHistory() {
+		GameSession session = new GameSession(8);
+		session.handle("1");
+		session.handle("1");
+		SolitaireModel model = session.model();
+		PackedSolitaireState state = PackedSolitaireState.of(model);
+		int moves = model.movesMade();
+		session.unpark(session.park());
+		assertEquals(state, PackedSolitaireState.of(session.model()));
+		assertEquals(moves, session.model().movesMade());
+		assertTrue(session.model().isDealtFromSeed());
+	}
+}
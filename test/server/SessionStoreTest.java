@@ -0,0 +1,71 @@
+package server;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import gameplay.PackedSolitaireState;
+
+/**
+ * SessionStoreTest shares a store that parks and spills almost every game between many threads, and checks
+ * that every session comes back as it was left
+ * @author Yael Goldin
+ */
+class SessionStoreTest {
+	private static final int THREADS = 8;
+	private static final int SESSIONS_PER_THREAD = 20;
+	private static final int TURNS_PER_THREAD = 3000;
+	
+	@Test
+	void sessionsSharedByManyThreadsComeBackAsTheyWereLeft(@TempDir Path dir) throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		try(SessionStore store = new SessionStore(2 * SessionStore.LIVE_SESSION_BYTES, 0, dir.resolve("spill"))) {
+			List<Future<?>> players = new ArrayList<>();
+			for(int t = 0; t < THREADS; t++) {
+				long seed = t;
+				players.add(pool.submit(() -> {
+					play(store, seed);
+					return null;
+				}));
+			}
+			for(Future<?> player : players) {
+				player.get();
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+	
+	//plays turns of random sessions of one player, checking each one is where it was left
+	private static void play(SessionStore store, long seed) {
+		GameSession[] sessions = new GameSession[SESSIONS_PER_THREAD];
+		PackedSolitaireState[] left = new PackedSolitaireState[SESSIONS_PER_THREAD];
+		for(int i = 0; i < sessions.length; i++) {
+			sessions[i] = store.open(seed * SESSIONS_PER_THREAD + i);
+			store.checkOut(sessions[i]);
+			left[i] = PackedSolitaireState.of(sessions[i].model());
+			store.checkIn(sessions[i]);
+		}
+		Random random = new Random(seed);
+		for(int turn = 0; turn < TURNS_PER_THREAD; turn++) {
+			int i = random.nextInt(sessions.length);
+			store.checkOut(sessions[i]);
+			assertEquals(left[i], PackedSolitaireState.of(sessions[i].model()));
+			assertEquals(GameSession.OK, sessions[i].handle("1"));
+			left[i] = PackedSolitaireState.of(sessions[i].model());
+			store.checkIn(sessions[i]);
+		}
+		for(GameSession session : sessions) {
+			store.remove(session);
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package solver;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import gameplay.SolitaireModel;
+import setup.Variant;
+
+/**
+ * KlondikeSolverTest checks that every line the solver calls a win really finishes the game
+ * @author Yael Goldin
+ */
+class KlondikeSolverTest {
+	private static final long NODE_LIMIT = 200_000;
+	private static final int DEALS = 20;
+	
+	@Test
+	void winningMovesFinishTheGame() {
+		int wins = 0;
+		for(Variant variant : Variant.values()) {
+			KlondikeSolver solver = new KlondikeSolver(NODE_LIMIT, KlondikeSolver.DEFAULT_TIME_LIMIT_MILLIS, 16);
+			for(long seed = 0; seed < DEALS; seed++) {
+				SolitaireModel model = new SolitaireModel(seed, variant);
+				SolveResult result = solver.solve(model);
+				assertEquals(0, model.movesMade(), "solve changed the model");
+				if(result.outcome == SolveResult.Outcome.WIN) {
+					for(int move : result.winningMoves()) {
+						model.apply(move);
+					}
+					assertTrue(model.gameOver(), variant + " seed " + seed);
+					wins++;
+				}
+			}
+		}
+		assertTrue(wins > 0);
+	}
+}
@@ -0,0 +1,36 @@
+package solver;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import gameplay.SolitaireModel;
+
+/**
+ * ParallelKlondikeSolverTest checks that every line the parallel solver calls a win really finishes the game
+ * @author Yael Goldin
+ */
+class ParallelKlondikeSolverTest {
+	private static final long NODE_LIMIT = 200_000;
+	private static final int DEALS = 20;
+	
+	@Test
+	void winningMovesFinishTheGame() {
+		int wins = 0;
+		try(ParallelKlondikeSolver solver = new ParallelKlondikeSolver(4, NODE_LIMIT,
+				KlondikeSolver.DEFAULT_TIME_LIMIT_MILLIS, 16, ParallelKlondikeSolver.DEFAULT_SPLIT_DEPTH)) {
+			for(long seed = 0; seed < DEALS; seed++) {
+				SolitaireModel model = new SolitaireModel(seed);
+				SolveResult result = solver.solve(model);
+				if(result.outcome == SolveResult.Outcome.WIN) {
+					for(int move : result.winningMoves()) {
+						model.apply(move);
+					}
+					assertTrue(model.gameOver(), "seed " + seed);
+					wins++;
+				}
+			}
+		}
+		assertTrue(wins > 0);
+	}
+}